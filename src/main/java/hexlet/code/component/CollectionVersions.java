@@ -0,0 +1,141 @@
+package hexlet.code.component;
+
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Change counters for each collection, kept in the {@code collection_versions} table and used as
+ * index ETags. Every instance reads the same rows, and a counter moves in the same transaction as
+ * the write it counts, so a tag can never be paired with rows it does not describe.
+ * <p>
+ * Each collection is spread over {@link #SHARDS} rows and a writer bumps one of them at random, so
+ * concurrent writers seldom queue on a row lock. A version is the sum of the rows, which only grows.
+ */
+@Component
+public class CollectionVersions {
+
+    // Matches the rows seeded by V5__add_collection_versions.sql.
+    private static final int SHARDS = 16;
+
+    private static final Map<Class<?>, String> NAMES = Map.of(
+            Task.class, "tasks",
+            User.class, "users",
+            Label.class, "labels",
+            TaskStatus.class, "task_statuses"
+    );
+
+    // Task lists show status slugs, so a renamed status changes them too.
+    private static final Map<Class<?>, List<String>> DEPENDENCIES = Map.of(
+            Task.class, List.of("tasks", "task_statuses"),
+            User.class, List.of("users"),
+            Label.class, List.of("labels"),
+            TaskStatus.class, List.of("task_statuses")
+    );
+
+    private static final String SELECT_VERSION =
+            "SELECT COALESCE(SUM(version), 0) FROM collection_versions WHERE name IN (%s)";
+
+    private static final String INCREMENT_VERSION =
+            "UPDATE collection_versions SET version = version + 1 WHERE name = ? AND shard = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /*
+     * Weak, because Tomcat only compresses responses without a strong ETag and list pages are
+     * the responses worth compressing.
+     *
+     * Callers read the tag in the same transaction as the page, before it, so both come from the
+     * same node and the page is never older than its tag.
+     */
+    public String getETag(Class<?> type) {
+        var names = DEPENDENCIES.get(type);
+        var placeholders = String.join(", ", Collections.nCopies(names.size(), "?"));
+        var version = jdbcTemplate.queryForObject(SELECT_VERSION.formatted(placeholders), Long.class, names.toArray());
+        return "W/\"" + version + "\"";
+    }
+
+    /*
+     * The update is issued once per transaction, after Hibernate's final flush, so that writes found
+     * only by that flush are still counted.
+     */
+    public void increment(Class<?> type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            var name = NAMES.get(type);
+            if (name != null) {
+                jdbcTemplate.update(INCREMENT_VERSION, name, ThreadLocalRandom.current().nextInt(SHARDS));
+            }
+            return;
+        }
+        increment(type, entityManager.unwrap(SessionImplementor.class));
+    }
+
+    // For Hibernate listeners, which know the session that fired the event.
+    public void increment(Class<?> type, SessionImplementor session) {
+        var name = NAMES.get(type);
+        if (name != null) {
+            getPendingIncrement(session).names.add(name);
+        }
+    }
+
+    private static PendingIncrement getPendingIncrement(SessionImplementor session) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            var increment = new PendingIncrement();
+            session.getActionQueue().registerProcess(increment);
+            return increment;
+        }
+        return TransactionSynchronizationManager.getSynchronizations()
+                .stream()
+                .filter(PendingIncrement.class::isInstance)
+                .map(PendingIncrement.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    var increment = new PendingIncrement();
+                    TransactionSynchronizationManager.registerSynchronization(increment);
+                    session.getActionQueue().registerProcess(increment);
+                    return increment;
+                });
+    }
+
+    // Sorted, so that concurrent transactions on the same shard lock its rows in the same order.
+    private static final class PendingIncrement implements TransactionSynchronization,
+            BeforeTransactionCompletionProcess {
+
+        private final Set<String> names = new TreeSet<>();
+
+        private final int shard = ThreadLocalRandom.current().nextInt(SHARDS);
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            session.doWork(connection -> {
+                try (var statement = connection.prepareStatement(INCREMENT_VERSION)) {
+                    for (var name : names) {
+                        statement.setString(1, name);
+                        statement.setInt(2, shard);
+                        statement.executeUpdate();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package hexlet.code.component;
+
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class CountCacheInvalidator implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionUpdateEventListener {
+
+    public static final String TASK_COUNTS = "taskCounts";
+
+    public static final String USER_COUNTS = "userCounts";
+
+    public static final String LABEL_COUNTS = "labelCounts";
+
+    public static final String TASK_STATUS_COUNTS = "taskStatusCounts";
+
+    private static final Map<Class<?>, String> CACHES = Map.of(
+            Task.class, TASK_COUNTS,
+            User.class, USER_COUNTS,
+            Label.class, LABEL_COUNTS,
+            TaskStatus.class, TASK_STATUS_COUNTS
+    );
+
+    // Properties that no list shows or filters on, such as the hash a login upgrades.
+    private static final Map<Class<?>, Set<String>> UNLISTED_PROPERTIES = Map.of(
+            User.class, Set.of("password", "updatedAt", "version")
+    );
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @PostConstruct
+    private void register() {
+        var registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    }
+
+    /**
+     * Task filters match on status slugs, assignees and labels, so a write to any entity
+     * can change a filtered task count as well as the entity's own total.
+     * <p>
+     * Entity events and bulk statements both run before the commit. The caches are cleared right
+     * away so that requests inside the transaction miss them, and again after the commit, because a
+     * count read from the old rows in between may have been cached again.
+     */
+    public void invalidate(Class<?> type) {
+        evict(type);
+        collectionVersions.increment(type);
+    }
+
+    private void invalidate(Class<?> type, SessionImplementor session) {
+        evict(type);
+        collectionVersions.increment(type, session);
+    }
+
+    private void evict(Class<?> type) {
+        var cacheNames = new HashSet<String>();
+        cacheNames.add(TASK_COUNTS);
+        if (CACHES.containsKey(type)) {
+            cacheNames.add(CACHES.get(type));
+        }
+        cacheNames.forEach(this::clear);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        var pending = TransactionSynchronizationManager.getSynchronizations()
+                .stream()
+                .filter(PendingEviction.class::isInstance)
+                .map(PendingEviction.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    var eviction = new PendingEviction();
+                    TransactionSynchronizationManager.registerSynchronization(eviction);
+                    return eviction;
+                });
+        pending.cacheNames.addAll(cacheNames);
+    }
+
+    private void clear(String cacheName) {
+        var cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getSession());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (changesListedProperty(event)) {
+            invalidate(event.getPersister().getMappedClass(), event.getSession());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getSession());
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        invalidate(Task.class, event.getSession());
+    }
+
+    // Without dirty-checking results (a merged detached entity, say) every property counts as changed.
+    private static boolean changesListedProperty(PostUpdateEvent event) {
+        var dirty = event.getDirtyProperties();
+        var unlisted = UNLISTED_PROPERTIES.get(event.getPersister().getMappedClass());
+        if (dirty == null || unlisted == null) {
+            return true;
+        }
+        var names = event.getPersister().getPropertyNames();
+        for (var index : dirty) {
+            if (!unlisted.contains(names[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private final class PendingEviction implements TransactionSynchronization {
+
+        private final Set<String> cacheNames = new HashSet<>();
+
+        @Override
+        public void afterCommit() {
+            cacheNames.forEach(CountCacheInvalidator.this::clear);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package hexlet.code.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Remembers, per username, a keyed hash of the last password that passed the BCrypt check, so repeated
+ * HTTP Basic requests with the same credentials skip the encoder. Neither the raw password nor an unkeyed
+ * digest of it is kept in memory; the HMAC key is random per process.
+ */
+@Component
+public class CredentialCache {
+
+    public static final String CACHE_NAME = "credentials";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Autowired
+    private CredentialCacheProperties credentialCacheProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SecretKeySpec key;
+
+    private Cache<String, byte[]> verified;
+
+    @PostConstruct
+    private void init() {
+        var secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        key = new SecretKeySpec(secret, ALGORITHM);
+        verified = Caffeine.newBuilder()
+                .maximumSize(credentialCacheProperties.getMaximumSize())
+                .expireAfterWrite(credentialCacheProperties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, CACHE_NAME);
+    }
+
+    public boolean contains(UserDetails user, String rawPassword) {
+        var cached = verified.getIfPresent(user.getUsername());
+        return cached != null && MessageDigest.isEqual(cached, hash(user, rawPassword));
+    }
+
+    public void put(UserDetails user, String rawPassword) {
+        verified.put(user.getUsername(), hash(user, rawPassword));
+    }
+
+    public void invalidate(String username) {
+        verified.invalidate(username);
+    }
+
+    /*
+     * The stored hash is part of the input, so a password changed on another node (or directly in the
+     * database) stops matching the cached entry even before it expires.
+     */
+    private byte[] hash(UserDetails user, String rawPassword) {
+        try {
+            var mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            for (var part : new String[] {user.getUsername(), user.getPassword(), rawPassword}) {
+                mac.update(part.getBytes(StandardCharsets.UTF_8));
+                mac.update((byte) 0);
+            }
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "jwt-cache")
+@Getter
+@Setter
+public class JwtCacheProperties {
+    private long maximumSize;
+    private Duration maximumTtl;
+}
@@ -0,0 +1,122 @@
+package hexlet.code.component;
+
+import hexlet.code.exception.TooManyRequestsException;
+import hexlet.code.util.FailureCounter;
+import hexlet.code.util.ReplicaRoutingDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small dedicated pool instead of request threads, so a burst of logins
+ * queues (and then gets 429s) without starving the rest of the API. Accounts and client addresses
+ * with too many recent failures are turned away before any hashing happens. Both /api/login and
+ * HTTP Basic are counted by the authentication provider, so neither can be used to get around the
+ * other's limits.
+ */
+@Component
+public class LoginGuard {
+
+    private static final String BUSY_MESSAGE = "Too many login attempts in progress";
+
+    private static final String THROTTLED_MESSAGE = "Too many failed login attempts";
+
+    @Autowired
+    private LoginProperties loginProperties;
+
+    private ThreadPoolExecutor executor;
+
+    private FailureCounter accountFailures;
+
+    private FailureCounter addressFailures;
+
+    private final ThreadLocal<Boolean> admitted = ThreadLocal.withInitial(() -> false);
+
+    @PostConstruct
+    private void init() {
+        executor = new ThreadPoolExecutor(loginProperties.getThreads(), loginProperties.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(loginProperties.getQueueCapacity()),
+                new CustomizableThreadFactory("login-"));
+        accountFailures = new FailureCounter(loginProperties.getMaximumKeys(), loginProperties.getWindow());
+        addressFailures = new FailureCounter(loginProperties.getMaximumKeys(), loginProperties.getWindow());
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdown();
+    }
+
+    // Checked on the calling thread; it only reads two counters.
+    public void checkAllowed(String username, String address) {
+        if (accountFailures.get(account(username)) >= loginProperties.getMaxFailuresPerAccount()) {
+            throw new TooManyRequestsException(THROTTLED_MESSAGE, accountFailures.secondsUntilReset());
+        }
+        if (addressFailures.get(address) >= loginProperties.getMaxFailuresPerAddress()) {
+            throw new TooManyRequestsException(THROTTLED_MESSAGE, addressFailures.secondsUntilReset());
+        }
+    }
+
+    public void recordFailure(String username, String address) {
+        accountFailures.increment(account(username));
+        addressFailures.increment(address);
+    }
+
+    /*
+     * Runs a whole login on the pool, for /api/login, which answers asynchronously. Throttled clients
+     * are turned away before they take a queue slot. The user lookup routes like the request would.
+     */
+    public <T> CompletableFuture<T> submit(String username, String address, Supplier<T> login) {
+        checkAllowed(username, address);
+        try {
+            return CompletableFuture.supplyAsync(ReplicaRoutingDataSource.propagate(() -> {
+                admitted.set(true);
+                try {
+                    return login.get();
+                } finally {
+                    admitted.remove();
+                }
+            }), executor);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    /*
+     * Runs a single hash on the pool and waits for it, for the password encoder behind HTTP Basic.
+     * Work that is already on the pool (a /api/login submission) runs inline.
+     */
+    public <T> T hash(Supplier<T> hash) {
+        if (admitted.get()) {
+            return hash.get();
+        }
+        try {
+            return CompletableFuture.supplyAsync(hash, executor).join();
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private TooManyRequestsException busy() {
+        return new TooManyRequestsException(BUSY_MESSAGE, loginProperties.getRetryAfter().toSeconds());
+    }
+
+    private static String account(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+}
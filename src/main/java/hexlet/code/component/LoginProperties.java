@@ -0,0 +1,22 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "login")
+@Getter
+@Setter
+public class LoginProperties {
+    private int threads;
+    private int queueCapacity;
+    private Duration retryAfter;
+    private long maximumKeys;
+    private Duration window;
+    private int maxFailuresPerAccount;
+    private int maxFailuresPerAddress;
+}
@@ -0,0 +1,17 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "pagination")
+@Getter
+@Setter
+public class PaginationProperties {
+    private Integer maxPageSize;
+    private Long maxOffset;
+    private Long estimateCountThreshold;
+    private String cursorSecret;
+}
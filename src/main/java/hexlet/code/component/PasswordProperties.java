@@ -0,0 +1,18 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "password")
+@Getter
+@Setter
+public class PasswordProperties {
+    private String encodingId;
+    private int strength;
+    private Duration targetVerificationTime;
+}
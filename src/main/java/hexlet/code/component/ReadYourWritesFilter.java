@@ -0,0 +1,62 @@
+package hexlet.code.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hexlet.code.util.ReplicaRoutingDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Sends the reads of a user who has just written something to the primary, so replica lag
+ * cannot hide their own changes from them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "replica", name = "url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Autowired
+    private ReplicaProperties replicaProperties;
+
+    private Cache<String, Boolean> recentWriters;
+
+    @PostConstruct
+    private void init() {
+        recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(replicaProperties.getReadYourWritesWindow())
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        var authenticated = authentication != null && !(authentication instanceof AnonymousAuthenticationToken);
+        var username = authenticated ? authentication.getName() : null;
+        var write = !SAFE_METHODS.contains(request.getMethod());
+
+        ReplicaRoutingDataSource.requirePrimary(
+                write || (username != null && recentWriters.getIfPresent(username) != null));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clear();
+            if (write && username != null) {
+                recentWriters.put(username, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "replica")
+@Getter
+@Setter
+public class ReplicaProperties {
+    private String url;
+    private String username;
+    private String password;
+    private Duration readYourWritesWindow;
+}
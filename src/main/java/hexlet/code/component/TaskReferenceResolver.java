@@ -0,0 +1,100 @@
+package hexlet.code.component;
+
+import hexlet.code.exception.ResourceNotFoundException;
+import hexlet.code.model.Label;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks every reference a task write needs with a single UNION ALL query and hands back
+ * lazy proxies, since the task row only stores their ids.
+ */
+@Component
+public class TaskReferenceResolver {
+
+    private static final String STATUS_NOT_FOUND_MESSAGE = "Status not found";
+
+    private static final String LABEL_NOT_FOUND_MESSAGE = "Label not found";
+
+    private static final String USER_NOT_FOUND_MESSAGE = "User not found";
+
+    private static final String STATUS = "status";
+
+    private static final String LABEL = "label";
+
+    private static final String ASSIGNEE = "assignee";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    public record References(TaskStatus status, Set<Label> labels, User assignee) {
+    }
+
+    /**
+     * Null arguments are not looked up and come back as null.
+     */
+    public References resolve(String statusSlug, Collection<Long> labelIds, Long assigneeId) {
+        var parts = new ArrayList<String>();
+        var parameters = new HashMap<String, Object>();
+        if (statusSlug != null) {
+            parts.add("select '" + STATUS + "', s.id from TaskStatus s where s.slug = :slug");
+            parameters.put("slug", statusSlug);
+        }
+        if (labelIds != null && !labelIds.isEmpty()) {
+            parts.add("select '" + LABEL + "', l.id from Label l where l.id in :labelIds");
+            parameters.put("labelIds", labelIds);
+        }
+        if (assigneeId != null) {
+            parts.add("select '" + ASSIGNEE + "', u.id from User u where u.id = :assigneeId");
+            parameters.put("assigneeId", assigneeId);
+        }
+
+        var found = new HashMap<String, Set<Long>>();
+        if (!parts.isEmpty()) {
+            var query = entityManager.createQuery(String.join(" union all ", parts), Object[].class);
+            parameters.forEach(query::setParameter);
+            for (var row : query.getResultList()) {
+                found.computeIfAbsent((String) row[0], key -> new HashSet<>()).add((Long) row[1]);
+            }
+        }
+
+        TaskStatus status = null;
+        if (statusSlug != null) {
+            var statusId = found.getOrDefault(STATUS, Set.of()).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException(STATUS_NOT_FOUND_MESSAGE));
+            status = entityManager.getReference(TaskStatus.class, statusId);
+        }
+
+        Set<Label> labels = null;
+        if (labelIds != null) {
+            var foundLabelIds = found.getOrDefault(LABEL, Set.of());
+            if (!foundLabelIds.containsAll(labelIds)) {
+                throw new ResourceNotFoundException(LABEL_NOT_FOUND_MESSAGE);
+            }
+            labels = foundLabelIds.stream()
+                    .map(id -> entityManager.getReference(Label.class, id))
+                    .collect(Collectors.toSet());
+        }
+
+        User assignee = null;
+        if (assigneeId != null) {
+            if (!found.getOrDefault(ASSIGNEE, Set.of()).contains(assigneeId)) {
+                throw new ResourceNotFoundException(USER_NOT_FOUND_MESSAGE);
+            }
+            assignee = entityManager.getReference(User.class, assigneeId);
+        }
+
+        return new References(status, labels, assignee);
+    }
+}
@@ -0,0 +1,37 @@
+package hexlet.code.component;
+
+import hexlet.code.util.JWTUtils;
+import hexlet.code.util.UserAuthenticationToken;
+import hexlet.code.util.UserPrincipal;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds the request principal from the token's own claims, so authenticated requests
+ * do not need to look the user up.
+ */
+@Component
+public class UserJwtConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        var authorities = Optional.ofNullable(jwt.getClaimAsStringList(JWTUtils.AUTHORITIES_CLAIM))
+                .orElse(List.of())
+                .stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+
+        Number userId = jwt.getClaim(JWTUtils.USER_ID_CLAIM);
+        if (userId == null) {
+            return new JwtAuthenticationToken(jwt, authorities);
+        }
+        return new UserAuthenticationToken(jwt, new UserPrincipal(userId.longValue(), jwt.getSubject()), authorities);
+    }
+}
@@ -6,26 +6,57 @@ import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import hexlet.code.component.JwtCacheProperties;
+import hexlet.code.component.PasswordProperties;
 import hexlet.code.component.RsaKeyProperties;
+import hexlet.code.util.BCryptCalibrator;
+import hexlet.code.util.CachingJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 
+import java.util.Map;
+
 @Configuration
 public class EncodersConfig {
 
     @Autowired
     private RsaKeyProperties rsaKeys;
 
+    @Autowired
+    private JwtCacheProperties jwtCacheProperties;
+
+    @Autowired
+    private PasswordProperties passwordProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        var strength = passwordProperties.getStrength();
+        if (passwordProperties.getTargetVerificationTime() != null) {
+            strength = BCryptCalibrator.strengthFor(passwordProperties.getTargetVerificationTime(), strength);
+        }
+
+        var bcrypt = new BCryptPasswordEncoder(strength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        );
+        var encoder = new DelegatingPasswordEncoder(passwordProperties.getEncodingId(), encoders);
+        // Hashes stored before the encoder ids were introduced are plain bcrypt.
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
@@ -37,6 +68,8 @@ public class EncodersConfig {
 
     @Bean
     JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(rsaKeys.getPublicKey()).build();
+        var decoder = NimbusJwtDecoder.withPublicKey(rsaKeys.getPublicKey()).build();
+        return new CachingJwtDecoder(decoder, jwtCacheProperties.getMaximumSize(),
+                jwtCacheProperties.getMaximumTtl(), meterRegistry);
     }
 }
@@ -1,28 +1,42 @@
 package hexlet.code.config;
 
+import hexlet.code.component.CredentialCache;
+import hexlet.code.component.LoginGuard;
+import hexlet.code.component.UserJwtConverter;
+import hexlet.code.exception.TooManyRequestsException;
 import hexlet.code.service.UserService;
+import hexlet.code.util.CachingDaoAuthenticationProvider;
+import hexlet.code.util.GuardedPasswordEncoder;
 import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
 import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 
+import java.io.IOException;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    private static final String REALM_NAME = "Realm";
+
     @Autowired
     private JwtDecoder jwtDecoder;
 
@@ -32,22 +46,46 @@ public class SecurityConfig {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserJwtConverter userJwtConverter;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private LoginGuard loginGuard;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
                                                    HandlerMappingIntrospector introspector) throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .dispatcherTypeMatchers(DispatcherType.FORWARD, DispatcherType.ERROR).permitAll()
+                        .dispatcherTypeMatchers(DispatcherType.FORWARD, DispatcherType.ERROR, DispatcherType.ASYNC)
+                        .permitAll()
                         .requestMatchers("/index.html", "/", "/assets/**", "/swagger-ui/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/login").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .oauth2ResourceServer((rs) -> rs.jwt((jwt) -> jwt.decoder(jwtDecoder)))
-                .httpBasic(Customizer.withDefaults())
+                .oauth2ResourceServer((rs) -> rs.jwt((jwt) -> jwt
+                        .decoder(jwtDecoder)
+                        .jwtAuthenticationConverter(userJwtConverter)))
+                .httpBasic(basic -> basic.authenticationEntryPoint(this::commenceBasic))
                 .build();
     }
 
+    private void commenceBasic(HttpServletRequest request, HttpServletResponse response,
+                               AuthenticationException authException) throws IOException {
+        if (authException.getCause() instanceof TooManyRequestsException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+            return;
+        }
+        var entryPoint = new BasicAuthenticationEntryPoint();
+        entryPoint.setRealmName(REALM_NAME);
+        entryPoint.commence(request, response, authException);
+    }
+
 
     @Bean
     public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
@@ -57,9 +95,10 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationProvider daoAuthProvider(AuthenticationManagerBuilder auth) {
-        var provider = new DaoAuthenticationProvider();
+        var provider = new CachingDaoAuthenticationProvider(credentialCache, loginGuard);
         provider.setUserDetailsService(userService);
-        provider.setPasswordEncoder(passwordEncoder);
+        provider.setPasswordEncoder(new GuardedPasswordEncoder(passwordEncoder, loginGuard));
+        provider.setUserDetailsPasswordService(userService);
         return provider;
     }
 
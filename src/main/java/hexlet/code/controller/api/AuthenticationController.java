@@ -1,15 +1,21 @@
 package hexlet.code.controller.api;
 
+import hexlet.code.component.LoginGuard;
 import hexlet.code.dto.AuthDTO.AuthLoginDTO;
+import hexlet.code.model.User;
 import hexlet.code.util.JWTUtils;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api")
 public class AuthenticationController {
@@ -19,14 +25,19 @@ public class AuthenticationController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private LoginGuard loginGuard;
+
     @PostMapping("/login")
-    public String create(@RequestBody AuthLoginDTO authRequest) {
+    public CompletableFuture<String> create(@RequestBody AuthLoginDTO authRequest, HttpServletRequest request) {
 
         var authentication = new UsernamePasswordAuthenticationToken(
                 authRequest.getUsername(), authRequest.getPassword());
+        authentication.setDetails(new WebAuthenticationDetails(request));
 
-        authenticationManager.authenticate(authentication);
-
-        return jwtUtils.generateToken(authRequest.getUsername());
+        return loginGuard.submit(authRequest.getUsername(), request.getRemoteAddr(), () -> {
+            var authenticated = authenticationManager.authenticate(authentication);
+            return jwtUtils.generateToken((User) authenticated.getPrincipal());
+        });
     }
 }
@@ -4,6 +4,8 @@ import hexlet.code.dto.LabelDTO.LabelCreateDTO;
 import hexlet.code.dto.LabelDTO.LabelDTO;
 import hexlet.code.dto.LabelDTO.LabelUpdateDTO;
 import hexlet.code.service.LabelService;
+import hexlet.code.util.ETagUtils;
+import hexlet.code.util.ListUtils;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -28,22 +31,34 @@ public class LabelController {
     @Autowired
     private LabelService labelService;
 
+    @Autowired
+    private ListUtils listUtils;
+
     @GetMapping
     public ResponseEntity<List<LabelDTO>> index(
             @RequestParam(defaultValue = "0", name = "_start") Integer start,
             @RequestParam(defaultValue = "100", name = "_end") Integer end,
             @RequestParam(defaultValue = "ASC", name = "_order") String orderDirection,
-            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty
+            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty,
+            @RequestParam(required = false, name = "_cursor") String cursor,
+            ServletWebRequest request
     ) {
-        var labels = labelService.getAll(start, end, orderDirection, orderProperty);
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(labelService.countAll()))
-                .body(labels);
+        return listUtils.getListResponse(
+                request,
+                labelService::getListETag,
+                cursor,
+                after -> labelService.getAllAfter(after, end - start, orderDirection, orderProperty),
+                () -> labelService.getAll(start, end, orderDirection, orderProperty),
+                labelService::countAll
+        );
     }
 
 
     @GetMapping("/{id}")
-    public LabelDTO show(@PathVariable Long id) {
+    public LabelDTO show(@PathVariable Long id, ServletWebRequest request) {
+        if (ETagUtils.isNotModified(request, labelService.getETag(id))) {
+            return null;
+        }
         return labelService.findById(id);
     }
 
@@ -1,26 +1,48 @@
 package hexlet.code.controller.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hexlet.code.dto.TaskDTO.TaskBatchUpdateDTO;
 import hexlet.code.dto.TaskDTO.TaskCreateDTO;
 import hexlet.code.dto.TaskDTO.TaskDTO;
 import hexlet.code.dto.TaskDTO.TaskFilterDTO;
+import hexlet.code.dto.TaskDTO.TaskImportResultDTO;
+import hexlet.code.dto.TaskDTO.TaskStatusTransitionDTO;
 import hexlet.code.dto.TaskDTO.TaskUpdateDTO;
+import hexlet.code.service.TaskImportService;
 import hexlet.code.service.TaskService;
+import hexlet.code.util.ETagUtils;
+import hexlet.code.util.ListUtils;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping(path = "/api/tasks")
@@ -29,22 +51,81 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private ListUtils listUtils;
+
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private ObjectMapper om;
+
+    private ObjectWriter exportWriter;
+
+    @PostConstruct
+    private void init() {
+        exportWriter = om.writerFor(TaskDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
     @GetMapping
     public ResponseEntity<List<TaskDTO>> index(
             TaskFilterDTO taskFilterDTO,
             @RequestParam(defaultValue = "0", name = "_start") Integer start,
             @RequestParam(defaultValue = "100", name = "_end") Integer end,
             @RequestParam(defaultValue = "ASC", name = "_order") String orderDirection,
-            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty
+            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty,
+            @RequestParam(required = false, name = "_cursor") String cursor,
+            ServletWebRequest request
     ) {
-        var users = taskService.getAll(taskFilterDTO, start, end, orderDirection, orderProperty);
+        return listUtils.getListResponse(
+                request,
+                taskService::getListETag,
+                cursor,
+                after -> taskService.getAllAfter(taskFilterDTO, after, end - start, orderDirection, orderProperty),
+                () -> taskService.getAll(taskFilterDTO, start, end, orderDirection, orderProperty),
+                () -> taskService.countAll(taskFilterDTO)
+        );
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(TaskFilterDTO taskFilterDTO) {
+        StreamingResponseBody body = outputStream -> {
+            try (var generator = om.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                taskService.export(taskFilterDTO, tasks -> {
+                    try {
+                        for (var task : tasks) {
+                            exportWriter.writeValue(generator, task);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(taskService.countAll(taskFilterDTO)))
-                .body(users);
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public TaskImportResultDTO importJson(InputStream body) throws IOException {
+        return taskImportService.importJson(body);
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public TaskImportResultDTO importCsv(InputStream body) throws IOException {
+        return taskImportService.importCsv(body);
     }
 
     @GetMapping("/{id}")
-    public TaskDTO show(@PathVariable Long id) {
+    public TaskDTO show(@PathVariable Long id, ServletWebRequest request) {
+        if (ETagUtils.isNotModified(request, taskService.getETag(id))) {
+            return null;
+        }
         return taskService.findById(id);
     }
 
@@ -55,8 +136,41 @@ public class TaskController {
     }
 
     @PutMapping("/{id}")
-    public TaskDTO update(@PathVariable Long id, @Valid @RequestBody TaskUpdateDTO data) {
-        return taskService.update(id, data);
+    public TaskDTO update(
+            @PathVariable Long id,
+            @Valid @RequestBody TaskUpdateDTO data,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return taskService.update(id, data, ifMatch);
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patch(@PathVariable Long id, @Valid @RequestBody TaskUpdateDTO data) {
+        taskService.patch(id, data);
+    }
+
+    @PatchMapping("/{id}/status")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void transitionStatus(@PathVariable Long id, @Valid @RequestBody TaskStatusTransitionDTO data) {
+        taskService.transitionStatus(id, data);
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<TaskDTO> createAll(@RequestBody @NotEmpty @Size(max = 1000) List<@Valid TaskCreateDTO> data) {
+        return taskService.createAll(data);
+    }
+
+    @PatchMapping("/batch")
+    public List<Long> updateAll(@Valid @RequestBody TaskBatchUpdateDTO data) {
+        return taskService.updateAll(data);
+    }
+
+    @DeleteMapping("/batch")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteAll(@RequestParam @NotEmpty @Size(max = 1000) Set<Long> ids) {
+        taskService.deleteAll(ids);
     }
 
     @DeleteMapping("/{id}")
@@ -4,6 +4,8 @@ import hexlet.code.dto.TaskStatusDTO.TaskStatusCreateDTO;
 import hexlet.code.dto.TaskStatusDTO.TaskStatusDTO;
 import hexlet.code.dto.TaskStatusDTO.TaskStatusUpdateDTO;
 import hexlet.code.service.TaskStatusService;
+import hexlet.code.util.ETagUtils;
+import hexlet.code.util.ListUtils;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -28,22 +31,34 @@ public class TaskStatusController {
     @Autowired
     private TaskStatusService taskStatusService;
 
+    @Autowired
+    private ListUtils listUtils;
+
 
     @GetMapping
     public ResponseEntity<List<TaskStatusDTO>> index(
             @RequestParam(defaultValue = "0", name = "_start") Integer start,
             @RequestParam(defaultValue = "10", name = "_end") Integer end,
             @RequestParam(defaultValue = "ASC", name = "_order") String orderDirection,
-            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty
+            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty,
+            @RequestParam(required = false, name = "_cursor") String cursor,
+            ServletWebRequest request
     ) {
-        var users = taskStatusService.getAll(start, end, orderDirection, orderProperty);
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(taskStatusService.countAll()))
-                .body(users);
+        return listUtils.getListResponse(
+                request,
+                taskStatusService::getListETag,
+                cursor,
+                after -> taskStatusService.getAllAfter(after, end - start, orderDirection, orderProperty),
+                () -> taskStatusService.getAll(start, end, orderDirection, orderProperty),
+                taskStatusService::countAll
+        );
     }
 
     @GetMapping("/{id}")
-    public TaskStatusDTO show(@PathVariable Long id) {
+    public TaskStatusDTO show(@PathVariable Long id, ServletWebRequest request) {
+        if (ETagUtils.isNotModified(request, taskStatusService.getETag(id))) {
+            return null;
+        }
         return taskStatusService.findById(id);
     }
 
@@ -5,6 +5,8 @@ import hexlet.code.dto.UserDTO.UserDTO;
 import hexlet.code.dto.UserDTO.UserUpdateDTO;
 import hexlet.code.exception.ResourceForbiddenException;
 import hexlet.code.service.UserService;
+import hexlet.code.util.ETagUtils;
+import hexlet.code.util.ListUtils;
 import hexlet.code.util.UserUtils;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -30,6 +33,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ListUtils listUtils;
+
     @Autowired
     private UserUtils userUtils;
 
@@ -38,16 +44,25 @@ public class UserController {
             @RequestParam(defaultValue = "0", name = "_start") Integer start,
             @RequestParam(defaultValue = "10", name = "_end") Integer end,
             @RequestParam(defaultValue = "ASC", name = "_order") String orderDirection,
-            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty
+            @RequestParam(defaultValue = "id", name = "_sort") String orderProperty,
+            @RequestParam(required = false, name = "_cursor") String cursor,
+            ServletWebRequest request
     ) {
-        var users = userService.getAll(start, end, orderDirection, orderProperty);
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(userService.countAll()))
-                .body(users);
+        return listUtils.getListResponse(
+                request,
+                userService::getListETag,
+                cursor,
+                after -> userService.getAllAfter(after, end - start, orderDirection, orderProperty),
+                () -> userService.getAll(start, end, orderDirection, orderProperty),
+                userService::countAll
+        );
     }
 
     @GetMapping("/{id}")
-    public UserDTO show(@PathVariable Long id) {
+    public UserDTO show(@PathVariable Long id, ServletWebRequest request) {
+        if (ETagUtils.isNotModified(request, userService.getETag(id))) {
+            return null;
+        }
         return userService.findById(id);
     }
 
@@ -59,9 +74,7 @@ public class UserController {
 
     @PutMapping("/{id}")
     public UserDTO update(@PathVariable Long id, @Valid @RequestBody UserUpdateDTO data) {
-        var currentUser = userUtils.getCurrentUser();
-
-        if (!currentUser.getId().equals(id)) {
+        if (!id.equals(userUtils.getCurrentUserId())) {
             throw new ResourceForbiddenException();
         }
         return userService.update(id, data);
@@ -70,9 +83,7 @@ public class UserController {
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable Long id) {
-        var currentUser = userUtils.getCurrentUser();
-
-        if (!currentUser.getId().equals(id)) {
+        if (!id.equals(userUtils.getCurrentUserId())) {
             throw new ResourceForbiddenException();
         }
         userService.delete(id);
@@ -0,0 +1,31 @@
+package hexlet.code.dto.TaskDTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.util.Set;
+
+@Getter
+@Setter
+public class TaskBatchUpdateDTO {
+    @NotEmpty
+    @Size(max = 1000)
+    private Set<Long> ids;
+
+    private JsonNullable<Long> index;
+
+    @JsonProperty("content")
+    private JsonNullable<String> description;
+
+    @JsonProperty("assignee_id")
+    private JsonNullable<Long> assigneeId;
+
+    private JsonNullable<String> status;
+
+    @JsonProperty("taskLabelIds")
+    private JsonNullable<Set<Long>> labelIds;
+}
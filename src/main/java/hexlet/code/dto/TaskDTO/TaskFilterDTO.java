@@ -1,17 +1,31 @@
 package hexlet.code.dto.TaskDTO;
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @Getter
 @Setter
+@EqualsAndHashCode
 public class TaskFilterDTO {
 
     private String titleCont;
 
-    private Long assigneeId;
+    private List<Long> assigneeId;
+
+    private List<String> status;
+
+    private List<Long> labelId;
+
+    private String labelMatch;
 
-    private String status;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdAtGte;
 
-    private Long labelId;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdAtLte;
 }
@@ -0,0 +1,14 @@
+package hexlet.code.dto.TaskDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TaskImportErrorDTO {
+    private Integer row;
+
+    private String message;
+}
@@ -0,0 +1,15 @@
+package hexlet.code.dto.TaskDTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class TaskImportResultDTO {
+    private Integer imported = 0;
+
+    private List<TaskImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package hexlet.code.dto.TaskDTO;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TaskStatusTransitionDTO {
+    @NotBlank
+    private String from;
+
+    @NotBlank
+    private String to;
+}
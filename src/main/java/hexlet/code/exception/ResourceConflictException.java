@@ -0,0 +1,7 @@
+package hexlet.code.exception;
+
+public class ResourceConflictException extends RuntimeException {
+    public ResourceConflictException(String message) {
+        super(message);
+    }
+}
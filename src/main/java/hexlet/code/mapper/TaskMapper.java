@@ -1,14 +1,12 @@
 package hexlet.code.mapper;
 
+import hexlet.code.component.TaskReferenceResolver;
 import hexlet.code.dto.TaskDTO.TaskCreateDTO;
 import hexlet.code.dto.TaskDTO.TaskDTO;
 import hexlet.code.dto.TaskDTO.TaskUpdateDTO;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.model.Label;
 import hexlet.code.model.Task;
-import hexlet.code.repository.LabelRepository;
-import hexlet.code.repository.TaskStatusRepository;
-import hexlet.code.repository.UserRepository;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -30,20 +28,10 @@ import java.util.stream.Collectors;
 public abstract class TaskMapper {
 
     @Autowired
-    private TaskStatusRepository taskStatusRepository;
-
-    @Autowired
-    private LabelRepository labelRepository;
-
-    @Autowired
-    private UserRepository userRepository;
+    private TaskReferenceResolver taskReferenceResolver;
 
     private static final String STATUS_NOT_FOUND_MESSAGE = "Status not found";
 
-    private static final String LABEL_NOT_FOUND_MESSAGE = "Label not found";
-
-    private static final String USER_NOT_FOUND_MESSAGE = "User not found";
-
     public abstract Task map(TaskCreateDTO dto);
 
     @Mapping(target = "assigneeId", source = "assignee.id")
@@ -55,46 +43,35 @@ public abstract class TaskMapper {
 
     @AfterMapping
     public void afterUpdateMapping(TaskUpdateDTO dto, @MappingTarget Task model) {
-        if (dto.getStatus() != null) {
-            setStatus(dto.getStatus().get(), model);
+        var slug = dto.getStatus() != null ? dto.getStatus().get() : null;
+        if (dto.getStatus() != null && slug == null) {
+            throw new ResourceNotFoundException(STATUS_NOT_FOUND_MESSAGE);
+        }
+        var labelIds = dto.getLabelIds() != null ? dto.getLabelIds().get() : null;
+        var assigneeId = dto.getAssigneeId() != null ? dto.getAssigneeId().get() : null;
+
+        var references = taskReferenceResolver.resolve(slug, labelIds, assigneeId);
+        if (references.status() != null) {
+            model.setTaskStatus(references.status());
         }
-        if (dto.getLabelIds() != null) {
-            setLabels(dto.getLabelIds().get(), model);
+        // Edited in place: replacing the collection makes Hibernate delete and re-insert every join row.
+        if (references.labels() != null) {
+            model.getLabels().retainAll(references.labels());
+            model.getLabels().addAll(references.labels());
         }
         if (dto.getAssigneeId() != null) {
-            setAssignee(dto.getAssigneeId().get(), model);
+            model.setAssignee(references.assignee());
         }
     }
 
     @AfterMapping
     public void afterCreateMapping(TaskCreateDTO dto, @MappingTarget Task model) {
-        setStatus(dto.getStatus(), model);
-        setLabels(dto.getLabelIds(), model);
-        if (dto.getAssigneeId() != null) {
-            setAssignee(dto.getAssigneeId(), model);
+        var references = taskReferenceResolver.resolve(dto.getStatus(), dto.getLabelIds(), dto.getAssigneeId());
+        model.setTaskStatus(references.status());
+        if (references.labels() != null) {
+            model.setLabels(references.labels());
         }
-    }
-
-    private void setStatus(String slug, Task model) {
-        var status = taskStatusRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException(STATUS_NOT_FOUND_MESSAGE));
-        model.setTaskStatus(status);
-    }
-
-    private void setLabels(Set<Long> labelIds, Task model) {
-        var labels = labelRepository.findAllByIdIn(labelIds);
-
-        if (labelIds.size() != labels.size()) {
-            throw new ResourceNotFoundException(LABEL_NOT_FOUND_MESSAGE);
-        }
-
-        model.setLabels(labels);
-    }
-
-    private void setAssignee(Long id, Task model) {
-        var assignee = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND_MESSAGE));
-        model.setAssignee(assignee);
+        model.setAssignee(references.assignee());
     }
 
     public Set<Long> labelsToLabelIds(Set<Label> labels) {
@@ -12,6 +12,7 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.ReportingPolicy;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Mapper(
@@ -48,4 +49,16 @@ public abstract class UserMapper {
         var password = model.getPassword();
         model.setPassword(passwordEncoder.encode(password));
     }
+
+    // UserDetailsManager passes UserDetails whose password is already encoded, so it is stored as given.
+    public void update(UserDetails details, User model) {
+        model.setEmail(details.getUsername());
+        if (details instanceof User user) {
+            model.setFirstName(user.getFirstName());
+            model.setLastName(user.getLastName());
+        }
+        if (details.getPassword() != null) {
+            model.setPassword(details.getPassword());
+        }
+    }
 }
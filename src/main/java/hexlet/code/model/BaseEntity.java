@@ -1,4 +1,5 @@
 package hexlet.code.model;
 
 public interface BaseEntity {
+    Long getId();
 }
@@ -2,17 +2,20 @@ package hexlet.code.repository;
 
 import hexlet.code.model.Label;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 
-public interface LabelRepository extends JpaRepository<Label, Long> {
-    Optional<Label> findByName(String name);
-
+public interface LabelRepository extends JpaRepository<Label, Long>, LabelRepositoryCustom {
     Set<Label> findAllByNameIn(Set<String> names);
 
-    Set<Label> findAllByIdIn(Set<Long> ids);
+    long countByIdIn(Collection<Long> ids);
 
     Boolean existsByName(String name);
 
+    @Query("select str(l.version) from Label l where l.id = :id")
+    Optional<String> findVersionTag(@Param("id") Long id);
 }
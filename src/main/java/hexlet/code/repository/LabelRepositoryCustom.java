@@ -0,0 +1,12 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.Label;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface LabelRepositoryCustom {
+    Optional<Label> findByName(String name);
+
+    Set<Label> findAllByIdIn(Set<Long> ids);
+}
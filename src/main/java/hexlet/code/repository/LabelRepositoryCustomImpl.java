@@ -0,0 +1,42 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.Label;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class LabelRepositoryCustomImpl implements LabelRepositoryCustom {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Label> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Label.class)
+                .loadOptional(name);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Label> findAllByIdIn(Set<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Label.class)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+}
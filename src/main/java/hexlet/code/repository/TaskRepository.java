@@ -1,11 +1,38 @@
 package hexlet.code.repository;
 
 import hexlet.code.model.Task;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>,
+        TaskRepositoryCustom {
+
+    @EntityGraph(attributePaths = {"taskStatus", "assignee", "labels"})
     Optional<Task> findByName(String name);
+
+    @Override
+    @EntityGraph(attributePaths = {"taskStatus", "assignee", "labels"})
+    Optional<Task> findById(Long id);
+
+    @EntityGraph(attributePaths = {"taskStatus", "assignee", "labels"})
+    List<Task> findAllByIdIn(Collection<Long> ids);
+
+    long countByIdIn(Collection<Long> ids);
+
+    /*
+     * A task is rendered with its status slug, so the status version is part of the task's tag.
+     */
+    @Query("select concat(str(t.version), '.', coalesce(str(s.version), '0')) from Task t "
+            + "left join t.taskStatus s where t.id = :id")
+    Optional<String> findVersionTag(@Param("id") Long id);
+
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'tasks'", nativeQuery = true)
+    Long estimateCount();
 }
@@ -0,0 +1,29 @@
+package hexlet.code.repository;
+
+import hexlet.code.dto.TaskDTO.TaskDTO;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface TaskRepositoryCustom {
+    List<TaskDTO> findAllProjected(Specification<Task> spec, Pageable pageable);
+
+    void forEachProjectedChunk(Specification<Task> spec, int chunkSize, Consumer<List<TaskDTO>> action);
+
+    int updateAll(Collection<Long> ids, Map<String, Object> values);
+
+    /**
+     * Deletes and inserts only the join rows that differ from the requested label set.
+     */
+    void replaceLabels(Collection<Long> ids, Collection<Long> labelIds);
+
+    int deleteAll(Collection<Long> ids);
+
+    int compareAndSetStatus(Long id, TaskStatus expected, TaskStatus status);
+}
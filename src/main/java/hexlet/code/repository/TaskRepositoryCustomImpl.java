@@ -0,0 +1,212 @@
+package hexlet.code.repository;
+
+import hexlet.code.dto.TaskDTO.TaskDTO;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String LABEL_IDS_QUERY = "select t.id, l.id from Task t join t.labels l where t.id in :ids";
+
+    private static final String DELETE_LABELS_QUERY = "DELETE FROM tasks_labels WHERE task_id IN (:ids)";
+
+    private static final String DELETE_OTHER_LABELS_QUERY = "DELETE FROM tasks_labels "
+            + "WHERE task_id IN (:ids) AND labels_id NOT IN (:labelIds)";
+
+    private static final String INSERT_LABELS_QUERY = "INSERT INTO tasks_labels (task_id, labels_id) "
+            + "SELECT t.id, l.id FROM tasks t CROSS JOIN labels l WHERE t.id IN (:ids) AND l.id IN (:labelIds) "
+            + "AND NOT EXISTS (SELECT 1 FROM tasks_labels tl WHERE tl.task_id = t.id AND tl.labels_id = l.id)";
+
+    private static final String DELETE_QUERY = "delete from Task t where t.id in :ids";
+
+    private static final String COMPARE_AND_SET_STATUS_QUERY = "update versioned Task t set t.taskStatus = :status "
+            + "where t.id = :id and t.taskStatus = :expected";
+
+    private static final String INCREMENT_VERSION_QUERY = "update Task t set t.version = t.version + 1 "
+            + "where t.id in :ids";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskDTO> findAllProjected(Specification<Task> spec, Pageable pageable) {
+        var tasks = entityManager.createQuery(createProjectionQuery(spec, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList()
+                .stream()
+                .map(TaskRepositoryCustomImpl::toDTO)
+                .toList();
+
+        if (!tasks.isEmpty()) {
+            setLabelIds(tasks);
+        }
+        return tasks;
+    }
+
+    @Override
+    public void forEachProjectedChunk(Specification<Task> spec, int chunkSize, Consumer<List<TaskDTO>> action) {
+        var query = entityManager.createQuery(createProjectionQuery(spec, Sort.by("id")))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, chunkSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        try (var rows = query.getResultStream()) {
+            var chunk = new ArrayList<TaskDTO>(chunkSize);
+            rows.map(TaskRepositoryCustomImpl::toDTO).forEach(task -> {
+                chunk.add(task);
+                if (chunk.size() == chunkSize) {
+                    acceptChunk(chunk, action);
+                }
+            });
+            if (!chunk.isEmpty()) {
+                acceptChunk(chunk, action);
+            }
+        }
+    }
+
+    @Override
+    public int updateAll(Collection<Long> ids, Map<String, Object> values) {
+        var assignments = new ArrayList<String>();
+        var parameters = new ArrayList<>();
+        values.forEach((attribute, value) -> {
+            assignments.add("t." + attribute + " = ?" + (assignments.size() + 1));
+            parameters.add(value);
+        });
+
+        var query = entityManager.createQuery("update versioned Task t set " + String.join(", ", assignments)
+                + " where t.id in ?" + (parameters.size() + 1));
+        for (var i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        return query.setParameter(parameters.size() + 1, ids).executeUpdate();
+    }
+
+    @Override
+    public void replaceLabels(Collection<Long> ids, Collection<Long> labelIds) {
+        int changed;
+        if (labelIds.isEmpty()) {
+            changed = createLabelsUpdate(DELETE_LABELS_QUERY)
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+        } else {
+            changed = createLabelsUpdate(DELETE_OTHER_LABELS_QUERY)
+                    .setParameter("ids", ids)
+                    .setParameter("labelIds", labelIds)
+                    .executeUpdate();
+            changed += createLabelsUpdate(INSERT_LABELS_QUERY)
+                    .setParameter("ids", ids)
+                    .setParameter("labelIds", labelIds)
+                    .executeUpdate();
+        }
+
+        if (changed > 0) {
+            entityManager.createQuery(INCREMENT_VERSION_QUERY)
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Long> ids) {
+        createLabelsUpdate(DELETE_LABELS_QUERY)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return entityManager.createQuery(DELETE_QUERY)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public int compareAndSetStatus(Long id, TaskStatus expected, TaskStatus status) {
+        return entityManager.createQuery(COMPARE_AND_SET_STATUS_QUERY)
+                .setParameter("id", id)
+                .setParameter("expected", expected)
+                .setParameter("status", status)
+                .executeUpdate();
+    }
+
+    /*
+     * Without a declared query space Hibernate treats a native update as touching every table
+     * and evicts the whole second-level cache.
+     */
+    private NativeQuery<?> createLabelsUpdate(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("tasks_labels");
+    }
+
+    private void acceptChunk(List<TaskDTO> chunk, Consumer<List<TaskDTO>> action) {
+        setLabelIds(chunk);
+        action.accept(List.copyOf(chunk));
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    private CriteriaQuery<Tuple> createProjectionQuery(Specification<Task> spec, Sort sort) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createTupleQuery();
+        var root = query.from(Task.class);
+        var taskStatus = root.join("taskStatus", JoinType.LEFT);
+        var predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("index").alias("index"),
+                root.get("createdAt").alias("createdAt"),
+                root.get("assignee").get("id").alias("assigneeId"),
+                root.get("name").alias("name"),
+                root.get("description").alias("description"),
+                taskStatus.get("slug").alias("status")
+        );
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return query;
+    }
+
+    private void setLabelIds(List<TaskDTO> tasks) {
+        var byId = tasks.stream()
+                .collect(Collectors.toMap(TaskDTO::getId, Function.identity()));
+
+        entityManager.createQuery(LABEL_IDS_QUERY, Tuple.class)
+                .setParameter("ids", byId.keySet())
+                .getResultList()
+                .forEach(row -> byId.get(row.get(0, Long.class)).getLabelIds().add(row.get(1, Long.class)));
+    }
+
+    private static TaskDTO toDTO(Tuple row) {
+        var index = row.get("index", Integer.class);
+
+        var task = new TaskDTO();
+        task.setId(row.get("id", Long.class));
+        task.setIndex(index == null ? null : index.longValue());
+        task.setCreatedAt(row.get("createdAt", LocalDate.class));
+        task.setAssigneeId(row.get("assigneeId", Long.class));
+        task.setName(row.get("name", String.class));
+        task.setDescription(row.get("description", String.class));
+        task.setStatus(row.get("status", String.class));
+        task.setLabelIds(new HashSet<>());
+        return task;
+    }
+}
@@ -2,9 +2,12 @@ package hexlet.code.repository;
 
 import hexlet.code.model.TaskStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
-public interface TaskStatusRepository extends JpaRepository<TaskStatus, Long> {
-    Optional<TaskStatus> findBySlug(String slug);
+public interface TaskStatusRepository extends JpaRepository<TaskStatus, Long>, TaskStatusRepositoryCustom {
+    @Query("select str(s.version) from TaskStatus s where s.id = :id")
+    Optional<String> findVersionTag(@Param("id") Long id);
 }
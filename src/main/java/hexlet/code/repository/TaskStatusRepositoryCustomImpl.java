@@ -0,0 +1,26 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.TaskStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class TaskStatusRepositoryCustomImpl implements TaskStatusRepositoryCustom {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TaskStatus> findBySlug(String slug) {
+        if (slug == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(TaskStatus.class)
+                .loadOptional(slug);
+    }
+}
@@ -1,18 +1,25 @@
 package hexlet.code.service;
 
+import hexlet.code.component.CollectionVersions;
+import hexlet.code.component.CountCacheInvalidator;
 import hexlet.code.dto.LabelDTO.LabelCreateDTO;
 import hexlet.code.dto.LabelDTO.LabelDTO;
 import hexlet.code.dto.LabelDTO.LabelUpdateDTO;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.LabelMapper;
+import hexlet.code.model.Label;
 import hexlet.code.repository.LabelRepository;
+import hexlet.code.util.KeysetPage;
+import hexlet.code.util.KeysetUtils;
+import hexlet.code.util.ListUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
-import static hexlet.code.util.ListUtils.getPageRequest;
-
 @Service
 public class LabelService {
 
@@ -24,13 +31,25 @@ public class LabelService {
     @Autowired
     private LabelRepository labelRepository;
 
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private KeysetUtils keysetUtils;
+
+    @Autowired
+    private ListUtils listUtils;
+
 
+    @Transactional(readOnly = true)
+    @Cacheable(CountCacheInvalidator.LABEL_COUNTS)
     public Long countAll() {
         return labelRepository.count();
     }
 
+    @Transactional(readOnly = true)
     public List<LabelDTO> getAll(Integer start, Integer end, String orderDirection, String orderProperty) {
-        var pageRequest = getPageRequest(start, end, orderDirection, orderProperty);
+        var pageRequest = listUtils.getPageRequest(Label.class, start, end, orderDirection, orderProperty);
 
         return labelRepository.findAll(pageRequest)
                 .stream()
@@ -38,7 +57,14 @@ public class LabelService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<LabelDTO> getAllAfter(String cursor, Integer size, String orderDirection, String orderProperty) {
+        return keysetUtils.getPage(Label.class, Specification.where(null), cursor, size, orderDirection, orderProperty)
+                .map(labelMapper::map);
+    }
+
 
+    @Transactional(readOnly = true)
     public LabelDTO findById(Long id) {
         var label = labelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
@@ -46,12 +72,24 @@ public class LabelService {
         return labelMapper.map(label);
     }
 
+    public String getListETag() {
+        return collectionVersions.getETag(Label.class);
+    }
+
+    @Transactional(readOnly = true)
+    public String getETag(Long id) {
+        return labelRepository.findVersionTag(id)
+                .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
+    }
+
+    @Transactional
     public LabelDTO create(LabelCreateDTO data) {
         var label = labelMapper.map(data);
         labelRepository.save(label);
         return labelMapper.map(label);
     }
 
+    @Transactional
     public LabelDTO update(Long id, LabelUpdateDTO data) {
         var label = labelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
@@ -60,6 +98,7 @@ public class LabelService {
         return labelMapper.map(label);
     }
 
+    @Transactional
     public void delete(Long id) {
         labelRepository.deleteById(id);
     }
@@ -0,0 +1,247 @@
+package hexlet.code.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import hexlet.code.component.CountCacheInvalidator;
+import hexlet.code.dto.TaskDTO.TaskCreateDTO;
+import hexlet.code.dto.TaskDTO.TaskImportErrorDTO;
+import hexlet.code.dto.TaskDTO.TaskImportResultDTO;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class TaskImportService {
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private static final String INSERT_TASK = "INSERT INTO tasks "
+            + "(id, name, index, description, task_status_id, assignee_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TASK_LABEL = "INSERT INTO tasks_labels (task_id, labels_id) VALUES (?, ?)";
+
+    private static final String STATUS_NOT_FOUND_MESSAGE = "Status not found";
+
+    private static final String LABEL_NOT_FOUND_MESSAGE = "Label not found";
+
+    private static final String USER_NOT_FOUND_MESSAGE = "User not found";
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema()
+            .withHeader()
+            .withArrayElementSeparator(";");
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private CountCacheInvalidator countCacheInvalidator;
+
+    public TaskImportResultDTO importJson(InputStream input) throws IOException {
+        try (MappingIterator<TaskCreateDTO> rows = om.readerFor(TaskCreateDTO.class).readValues(input)) {
+            return importRows(rows);
+        }
+    }
+
+    public TaskImportResultDTO importCsv(InputStream input) throws IOException {
+        try (MappingIterator<TaskCreateDTO> rows = CSV_MAPPER.readerFor(TaskCreateDTO.class)
+                .with(CSV_SCHEMA)
+                .readValues(input)) {
+            return importRows(rows);
+        }
+    }
+
+    /*
+     * A row that cannot be parsed leaves the reader at an unknown position, so it ends the import:
+     * the rows before it are still written and the parse error is reported against its row number.
+     */
+    private TaskImportResultDTO importRows(MappingIterator<TaskCreateDTO> rows) throws IOException {
+        var statuses = taskStatusRepository.findAll().stream()
+                .collect(Collectors.toMap(TaskStatus::getSlug, TaskStatus::getId));
+        var labelIds = labelRepository.findAll().stream()
+                .map(Label::getId)
+                .collect(Collectors.toSet());
+
+        var result = new TaskImportResultDTO();
+        var chunk = new ArrayList<ImportRow>(CHUNK_SIZE);
+        var rowNumber = 0;
+        try {
+            while (rows.hasNextValue()) {
+                rowNumber++;
+                chunk.add(new ImportRow(rowNumber, rows.nextValue()));
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, statuses, labelIds, result);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.getErrors().add(new TaskImportErrorDTO(rowNumber, e.getOriginalMessage()));
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, statuses, labelIds, result);
+        }
+        return result;
+    }
+
+    private void importChunk(
+            List<ImportRow> chunk,
+            Map<String, Long> statuses,
+            Set<Long> labelIds,
+            TaskImportResultDTO result
+    ) {
+        var assigneeIds = chunk.stream()
+                .map(row -> row.data().getAssigneeId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        var assignees = assigneeIds.isEmpty() ? Set.<Long>of() : userRepository.findExistingIds(assigneeIds);
+
+        var valid = new ArrayList<ImportRow>(chunk.size());
+        for (var row : chunk) {
+            var error = validate(row.data(), statuses, labelIds, assignees);
+            if (error == null) {
+                valid.add(row);
+            } else {
+                result.getErrors().add(new TaskImportErrorDTO(row.number(), error));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // Invalidated per chunk, as an I/O or database error in a later chunk leaves this one committed
+        transactionTemplate.executeWithoutResult(status -> {
+            insert(valid, statuses);
+            countCacheInvalidator.invalidate(Task.class);
+        });
+        result.setImported(result.getImported() + valid.size());
+    }
+
+    private String validate(TaskCreateDTO data, Map<String, Long> statuses, Set<Long> labelIds, Set<Long> assignees) {
+        var violations = validator.validate(data);
+        if (!violations.isEmpty()) {
+            var violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (!statuses.containsKey(data.getStatus())) {
+            return STATUS_NOT_FOUND_MESSAGE;
+        }
+        if (data.getLabelIds() != null && !labelIds.containsAll(data.getLabelIds())) {
+            return LABEL_NOT_FOUND_MESSAGE;
+        }
+        if (data.getAssigneeId() != null && !assignees.contains(data.getAssigneeId())) {
+            return USER_NOT_FOUND_MESSAGE;
+        }
+        return null;
+    }
+
+    private void insert(List<ImportRow> rows, Map<String, Long> statuses) {
+        var ids = generateIds(rows.size());
+        var createdAt = Date.valueOf(LocalDate.now());
+        jdbcTemplate.batchUpdate(INSERT_TASK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                var data = rows.get(i).data();
+                ps.setLong(1, ids.get(i));
+                ps.setString(2, data.getName());
+                ps.setObject(3, data.getIndex() == null ? null : data.getIndex().intValue(), Types.INTEGER);
+                ps.setString(4, data.getDescription());
+                ps.setLong(5, statuses.get(data.getStatus()));
+                ps.setObject(6, data.getAssigneeId(), Types.BIGINT);
+                ps.setDate(7, createdAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        var links = new ArrayList<Object[]>();
+        for (var i = 0; i < rows.size(); i++) {
+            var labelIds = rows.get(i).data().getLabelIds();
+            if (labelIds == null) {
+                continue;
+            }
+            for (var labelId : labelIds) {
+                links.add(new Object[] {ids.get(i), labelId});
+            }
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TASK_LABEL, links);
+        }
+    }
+
+    /*
+     * Ids come from Task's own pooled sequence generator, so imported rows share the id space
+     * with entities persisted through Hibernate and cost one sequence call per allocation block.
+     */
+    private List<Long> generateIds(int count) {
+        var session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        var generator = (IdentifierGenerator) session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(Task.class)
+                .getGenerator();
+        var ids = new ArrayList<Long>(count);
+        for (var i = 0; i < count; i++) {
+            ids.add((Long) generator.generate(session, null));
+        }
+        return ids;
+    }
+
+    private record ImportRow(int number, TaskCreateDTO data) {
+    }
+}
@@ -1,39 +1,101 @@
 package hexlet.code.service;
 
+import hexlet.code.component.CollectionVersions;
+import hexlet.code.component.CountCacheInvalidator;
+import hexlet.code.component.PaginationProperties;
+import hexlet.code.component.TaskReferenceResolver;
+import hexlet.code.dto.TaskDTO.TaskBatchUpdateDTO;
 import hexlet.code.dto.TaskDTO.TaskCreateDTO;
 import hexlet.code.dto.TaskDTO.TaskDTO;
 import hexlet.code.dto.TaskDTO.TaskFilterDTO;
+import hexlet.code.dto.TaskDTO.TaskStatusTransitionDTO;
 import hexlet.code.dto.TaskDTO.TaskUpdateDTO;
+import hexlet.code.exception.PreconditionFailedException;
+import hexlet.code.exception.ResourceConflictException;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.TaskMapper;
+import hexlet.code.model.Task;
 import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.specification.TaskSpecification;
+import hexlet.code.util.ETagUtils;
+import hexlet.code.util.KeysetPage;
+import hexlet.code.util.KeysetUtils;
+import hexlet.code.util.ListUtils;
+import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-
-import static hexlet.code.util.ListUtils.getPageRequest;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
 
     private static final String NOT_FOUND_MESSAGE = "Task not found";
 
+    private static final String STATUS_NOT_FOUND_MESSAGE = "Status not found";
+
+    private static final String STATUS_CONFLICT_MESSAGE = "Task status has changed";
+
+    private static final String PRECONDITION_FAILED_MESSAGE = "Task has changed";
+
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+
     @Autowired
     private TaskMapper taskMapper;
 
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private TaskReferenceResolver taskReferenceResolver;
+
     @Autowired
     private TaskSpecification taskSpecification;
 
+    @Autowired
+    private KeysetUtils keysetUtils;
+
+    @Autowired
+    private ListUtils listUtils;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private CountCacheInvalidator countCacheInvalidator;
+
+    @Transactional(readOnly = true)
+    @Cacheable(CountCacheInvalidator.TASK_COUNTS)
     public Long countAll(TaskFilterDTO taskFilterDTO) {
+        var threshold = paginationProperties.getEstimateCountThreshold();
+        if (threshold != null && isUnfiltered(taskFilterDTO)) {
+            var estimate = taskRepository.estimateCount();
+            if (estimate != null && estimate >= threshold) {
+                return estimate;
+            }
+        }
+
         var taskSpec = taskSpecification.build(taskFilterDTO);
         return taskRepository.count(taskSpec);
     }
 
+    @Transactional(readOnly = true)
     public List<TaskDTO> getAll(
             TaskFilterDTO taskFilterDTO,
             Integer start,
@@ -41,14 +103,39 @@ public class TaskService {
             String orderDirection,
             String orderProperty
     ) {
-        var pageRequest = getPageRequest(start, end, orderDirection, orderProperty);
+        var pageRequest = listUtils.getPageRequest(Task.class, start, end, orderDirection, orderProperty);
         var taskSpec = taskSpecification.build(taskFilterDTO);
 
-        return taskRepository.findAll(taskSpec, pageRequest)
-                .map(taskMapper::map)
+        return taskRepository.findAllProjected(taskSpec, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<TaskDTO> getAllAfter(
+            TaskFilterDTO taskFilterDTO,
+            String cursor,
+            Integer size,
+            String orderDirection,
+            String orderProperty
+    ) {
+        var taskSpec = taskSpecification.build(taskFilterDTO);
+
+        var page = keysetUtils.getPage(Task.class, taskSpec, cursor, size, orderDirection, orderProperty);
+        var ids = page.content()
+                .stream()
+                .map(Task::getId)
                 .toList();
+
+        return new KeysetPage<>(findAllWithReferences(ids), page.nextCursor())
+                .map(taskMapper::map);
     }
 
+    @Transactional(readOnly = true)
+    public void export(TaskFilterDTO taskFilterDTO, Consumer<List<TaskDTO>> action) {
+        var taskSpec = taskSpecification.build(taskFilterDTO);
+        taskRepository.forEachProjectedChunk(taskSpec, EXPORT_CHUNK_SIZE, action);
+    }
+
+    @Transactional(readOnly = true)
     public TaskDTO findById(Long id) {
         var taskStatus = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
@@ -56,21 +143,171 @@ public class TaskService {
         return taskMapper.map(taskStatus);
     }
 
+    public String getListETag() {
+        return collectionVersions.getETag(Task.class);
+    }
+
+    @Transactional(readOnly = true)
+    public String getETag(Long id) {
+        return taskRepository.findVersionTag(id)
+                .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
+    }
+
+    @Transactional
     public TaskDTO create(TaskCreateDTO data) {
         var task = taskMapper.map(data);
         taskRepository.save(task);
         return taskMapper.map(task);
     }
 
-    public TaskDTO update(Long id, TaskUpdateDTO data) {
+    /*
+     * The precondition is checked against the version that was loaded, and Hibernate's versioned
+     * UPDATE then fails the flush if another writer got in between, so no lock is held.
+     */
+    @Transactional
+    public TaskDTO update(Long id, TaskUpdateDTO data, String ifMatch) {
         var task = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
+        if (ifMatch != null && !ETagUtils.matches(ifMatch, getETag(task))) {
+            throw new PreconditionFailedException(PRECONDITION_FAILED_MESSAGE);
+        }
         taskMapper.update(data, task);
         taskRepository.save(task);
         return taskMapper.map(task);
     }
 
+    @Transactional
+    public void transitionStatus(Long id, TaskStatusTransitionDTO data) {
+        var expected = taskStatusRepository.findBySlug(data.getFrom())
+                .orElseThrow(() -> new ResourceNotFoundException(STATUS_NOT_FOUND_MESSAGE));
+        var status = taskStatusRepository.findBySlug(data.getTo())
+                .orElseThrow(() -> new ResourceNotFoundException(STATUS_NOT_FOUND_MESSAGE));
+
+        if (taskRepository.compareAndSetStatus(id, expected, status) == 0) {
+            if (!taskRepository.existsById(id)) {
+                throw new ResourceNotFoundException(NOT_FOUND_MESSAGE);
+            }
+            throw new ResourceConflictException(STATUS_CONFLICT_MESSAGE);
+        }
+        countCacheInvalidator.invalidate(Task.class);
+    }
+
+    @Transactional
     public void delete(Long id) {
         taskRepository.deleteById(id);
     }
+
+    @Transactional
+    public List<TaskDTO> createAll(List<TaskCreateDTO> data) {
+        var tasks = data.stream()
+                .map(taskMapper::map)
+                .toList();
+        taskRepository.saveAll(tasks);
+        return tasks.stream()
+                .map(taskMapper::map)
+                .toList();
+    }
+
+    @Transactional
+    public List<Long> updateAll(TaskBatchUpdateDTO data) {
+        var ids = data.getIds();
+        var labelIds = getLabelIds(data.getLabelIds());
+        var values = getUpdateValues(data.getIndex(), data.getDescription(), data.getStatus(), data.getAssigneeId(),
+                labelIds);
+        applyUpdate(ids, values, labelIds);
+        return List.copyOf(ids);
+    }
+
+    /*
+     * Only the fields present in the request reach the UPDATE, and references are bound as
+     * proxies, so the task and its associations are never loaded.
+     */
+    @Transactional
+    public void patch(Long id, TaskUpdateDTO data) {
+        var labelIds = getLabelIds(data.getLabelIds());
+        var values = new LinkedHashMap<String, Object>();
+        if (data.getName() != null) {
+            values.put("name", data.getName().get());
+        }
+        values.putAll(getUpdateValues(data.getIndex(), data.getDescription(), data.getStatus(), data.getAssigneeId(),
+                labelIds));
+        applyUpdate(Set.of(id), values, labelIds);
+    }
+
+    @Transactional
+    public void deleteAll(Set<Long> ids) {
+        if (taskRepository.deleteAll(ids) > 0) {
+            countCacheInvalidator.invalidate(Task.class);
+        }
+    }
+
+    private Map<String, Object> getUpdateValues(
+            JsonNullable<Long> index,
+            JsonNullable<String> description,
+            JsonNullable<String> status,
+            JsonNullable<Long> assigneeId,
+            Set<Long> labelIds
+    ) {
+        var values = new LinkedHashMap<String, Object>();
+        if (index != null) {
+            values.put("index", index.get() == null ? null : index.get().intValue());
+        }
+        if (description != null) {
+            values.put("description", description.get());
+        }
+        var slug = status != null ? status.get() : null;
+        if (status != null && slug == null) {
+            throw new ResourceNotFoundException(STATUS_NOT_FOUND_MESSAGE);
+        }
+
+        var references = taskReferenceResolver.resolve(slug, labelIds, assigneeId != null ? assigneeId.get() : null);
+        if (references.status() != null) {
+            values.put("taskStatus", references.status());
+        }
+        if (assigneeId != null) {
+            values.put("assignee", references.assignee());
+        }
+        return values;
+    }
+
+    private void applyUpdate(Set<Long> ids, Map<String, Object> values, Set<Long> labelIds) {
+        var updated = values.isEmpty() ? taskRepository.countByIdIn(ids) : taskRepository.updateAll(ids, values);
+        if (updated != ids.size()) {
+            throw new ResourceNotFoundException(NOT_FOUND_MESSAGE);
+        }
+
+        if (labelIds != null) {
+            taskRepository.replaceLabels(ids, labelIds);
+        }
+
+        countCacheInvalidator.invalidate(Task.class);
+    }
+
+    private static Set<Long> getLabelIds(JsonNullable<Set<Long>> labelIds) {
+        return labelIds != null ? Optional.ofNullable(labelIds.get()).orElse(Set.of()) : null;
+    }
+
+    // Same format as TaskRepository#findVersionTag
+    private static String getETag(Task task) {
+        var status = task.getTaskStatus();
+        return task.getVersion() + "." + (status == null ? 0 : status.getVersion());
+    }
+
+    private static boolean isUnfiltered(TaskFilterDTO filter) {
+        return new TaskFilterDTO().equals(filter);
+    }
+
+    private List<Task> findAllWithReferences(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        var tasks = taskRepository.findAllByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        return ids.stream()
+                .map(tasks::get)
+                .toList();
+    }
 }
@@ -1,18 +1,25 @@
 package hexlet.code.service;
 
+import hexlet.code.component.CollectionVersions;
+import hexlet.code.component.CountCacheInvalidator;
 import hexlet.code.dto.TaskStatusDTO.TaskStatusCreateDTO;
 import hexlet.code.dto.TaskStatusDTO.TaskStatusDTO;
 import hexlet.code.dto.TaskStatusDTO.TaskStatusUpdateDTO;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.TaskStatusMapper;
+import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.util.KeysetPage;
+import hexlet.code.util.KeysetUtils;
+import hexlet.code.util.ListUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
-import static hexlet.code.util.ListUtils.getPageRequest;
-
 @Service
 public class TaskStatusService {
 
@@ -24,12 +31,24 @@ public class TaskStatusService {
     @Autowired
     private TaskStatusRepository taskStatusRepository;
 
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private KeysetUtils keysetUtils;
+
+    @Autowired
+    private ListUtils listUtils;
+
+    @Transactional(readOnly = true)
+    @Cacheable(CountCacheInvalidator.TASK_STATUS_COUNTS)
     public Long countAll() {
         return taskStatusRepository.count();
     }
 
+    @Transactional(readOnly = true)
     public List<TaskStatusDTO> getAll(Integer start, Integer end, String orderDirection, String orderProperty) {
-        var pageRequest = getPageRequest(start, end, orderDirection, orderProperty);
+        var pageRequest = listUtils.getPageRequest(TaskStatus.class, start, end, orderDirection, orderProperty);
 
         return taskStatusRepository.findAll(pageRequest)
                 .stream()
@@ -37,6 +56,20 @@ public class TaskStatusService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<TaskStatusDTO> getAllAfter(
+            String cursor,
+            Integer size,
+            String orderDirection,
+            String orderProperty
+    ) {
+        var spec = Specification.<TaskStatus>where(null);
+
+        return keysetUtils.getPage(TaskStatus.class, spec, cursor, size, orderDirection, orderProperty)
+                .map(taskStatusMapper::map);
+    }
+
+    @Transactional(readOnly = true)
     public TaskStatusDTO findById(Long id) {
         var taskStatus = taskStatusRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
@@ -44,12 +77,24 @@ public class TaskStatusService {
         return taskStatusMapper.map(taskStatus);
     }
 
+    public String getListETag() {
+        return collectionVersions.getETag(TaskStatus.class);
+    }
+
+    @Transactional(readOnly = true)
+    public String getETag(Long id) {
+        return taskStatusRepository.findVersionTag(id)
+                .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
+    }
+
+    @Transactional
     public TaskStatusDTO create(TaskStatusCreateDTO data) {
         var taskStatus = taskStatusMapper.map(data);
         taskStatusRepository.save(taskStatus);
         return taskStatusMapper.map(taskStatus);
     }
 
+    @Transactional
     public TaskStatusDTO update(Long id, TaskStatusUpdateDTO data) {
         var taskStatus = taskStatusRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
@@ -59,6 +104,7 @@ public class TaskStatusService {
         return taskStatusMapper.map(taskStatus);
     }
 
+    @Transactional
     public void delete(Long id) {
         taskStatusRepository.deleteById(id);
     }
@@ -1,38 +1,72 @@
 package hexlet.code.service;
 
+import hexlet.code.component.CollectionVersions;
+import hexlet.code.component.CountCacheInvalidator;
+import hexlet.code.component.CredentialCache;
 import hexlet.code.dto.UserDTO.UserCreateDTO;
 import hexlet.code.dto.UserDTO.UserDTO;
 import hexlet.code.dto.UserDTO.UserUpdateDTO;
+import hexlet.code.exception.ResourceConflictException;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.UserMapper;
+import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.util.KeysetPage;
+import hexlet.code.util.KeysetUtils;
+import hexlet.code.util.ListUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.UserDetailsManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
-import static hexlet.code.util.ListUtils.getPageRequest;
-
 @Service
-public class UserService implements UserDetailsManager {
+public class UserService implements UserDetailsManager, UserDetailsPasswordService {
 
     private static final String NOT_FOUND_MESSAGE = "User not found";
 
+    private static final String CONFLICT_MESSAGE = "User already exists";
+
     @Autowired
     private UserMapper userMapper;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private KeysetUtils keysetUtils;
+
+    @Autowired
+    private ListUtils listUtils;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Transactional(readOnly = true)
+    @Cacheable(CountCacheInvalidator.USER_COUNTS)
     public Long countAll() {
         return userRepository.count();
     }
 
+    @Transactional(readOnly = true)
     public List<UserDTO> getAll(Integer start, Integer end, String orderDirection, String orderProperty) {
-        var pageRequest = getPageRequest(start, end, orderDirection, orderProperty);
+        var pageRequest = listUtils.getPageRequest(User.class, start, end, orderDirection, orderProperty);
 
         return userRepository.findAll(pageRequest)
                 .stream()
@@ -40,6 +74,13 @@ public class UserService implements UserDetailsManager {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<UserDTO> getAllAfter(String cursor, Integer size, String orderDirection, String orderProperty) {
+        return keysetUtils.getPage(User.class, Specification.where(null), cursor, size, orderDirection, orderProperty)
+                .map(userMapper::map);
+    }
+
+    @Transactional(readOnly = true)
     public UserDTO findById(Long id) {
         var user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
@@ -47,51 +88,110 @@ public class UserService implements UserDetailsManager {
         return userMapper.map(user);
     }
 
+    public String getListETag() {
+        return collectionVersions.getETag(User.class);
+    }
+
+    @Transactional(readOnly = true)
+    public String getETag(Long id) {
+        return userRepository.findVersionTag(id)
+                .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
+    }
+
+    @Transactional
     public UserDTO create(UserCreateDTO data) {
         var user = userMapper.map(data);
         userRepository.save(user);
         return userMapper.map(user);
     }
 
+    @Transactional
     public UserDTO update(Long id, UserUpdateDTO data) {
         var user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE));
 
+        var email = user.getEmail();
         userMapper.update(data, user);
         userRepository.save(user);
+        if (data.getPassword() != null || !email.equals(user.getEmail())) {
+            credentialCache.invalidate(email);
+        }
         return userMapper.map(user);
     }
 
+    @Transactional
     public void delete(Long id) {
+        userRepository.findById(id).ifPresent(user -> credentialCache.invalidate(user.getEmail()));
         userRepository.deleteById(id);
     }
 
     @Override
+    @Transactional
     public void createUser(UserDetails user) {
-        throw new UnsupportedOperationException("Unimplemented method 'createUser'");
+        if (userExists(user.getUsername())) {
+            throw new ResourceConflictException(CONFLICT_MESSAGE);
+        }
+        var model = new User();
+        userMapper.update(user, model);
+        userRepository.save(model);
     }
 
     @Override
+    @Transactional
     public void updateUser(UserDetails user) {
-        throw new UnsupportedOperationException("Unimplemented method 'updateUser'");
+        var model = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(NOT_FOUND_MESSAGE));
+        userMapper.update(user, model);
+        userRepository.save(model);
+        credentialCache.invalidate(model.getEmail());
     }
 
     @Override
+    @Transactional
     public void deleteUser(String username) {
-        throw new UnsupportedOperationException("Unimplemented method 'deleteUser'");
+        userRepository.findByEmail(username).ifPresent(userRepository::delete);
+        credentialCache.invalidate(username);
     }
 
     @Override
+    @Transactional
     public void changePassword(String oldPassword, String newPassword) {
-        throw new UnsupportedOperationException("Unimplemented method 'changePassword'");
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new AccessDeniedException("Can't change password as no authenticated user found");
+        }
+
+        var user = userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new UsernameNotFoundException(NOT_FOUND_MESSAGE));
+        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+            throw new BadCredentialsException("Invalid password");
+        }
+        updatePassword(user, passwordEncoder.encode(newPassword));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean userExists(String username) {
-        throw new UnsupportedOperationException("Unimplemented method 'userExists'");
+        return userRepository.findByEmail(username).isPresent();
+    }
+
+    /*
+     * Called by the authentication provider after a successful login whose stored hash uses an
+     * outdated algorithm or cost, so hashes migrate as users sign in.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        var model = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(NOT_FOUND_MESSAGE));
+        model.setPassword(newPassword);
+        userRepository.save(model);
+        credentialCache.invalidate(model.getEmail());
+        return model;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException(NOT_FOUND_MESSAGE));
@@ -1,38 +1,110 @@
 package hexlet.code.specification;
 
 import hexlet.code.dto.TaskDTO.TaskFilterDTO;
+import hexlet.code.exception.BadRequestException;
 import hexlet.code.model.Task;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Component
 public class TaskSpecification {
 
+    private static final char ESCAPE = '\\';
+
+    private static final String LABEL_MATCH_ANY = "any";
+
+    private static final String LABEL_MATCH_ALL = "all";
+
+    private static final String INVALID_LABEL_MATCH_MESSAGE = "labelMatch must be 'any' or 'all'";
+
     public Specification<Task> build(TaskFilterDTO filter) {
         return withTitleContains(filter.getTitleCont())
-                .and(withAssigneeId(filter.getAssigneeId()))
-                .and(withStatusSlug(filter.getStatus()))
-                .and(withLabelId(filter.getLabelId()));
+                .and(withAssigneeIds(filter.getAssigneeId()))
+                .and(withStatusSlugs(filter.getStatus()))
+                .and(withLabelIds(filter.getLabelId(), filter.getLabelMatch()))
+                .and(withCreatedAtFrom(filter.getCreatedAtGte()))
+                .and(withCreatedAtTo(filter.getCreatedAtLte()));
     }
 
     private Specification<Task> withTitleContains(String titleCont) {
         return ((root, query, criteriaBuilder) -> titleCont == null ? criteriaBuilder.conjunction()
-                : criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + titleCont.toLowerCase() + "%"));
+                : criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), toContainsPattern(titleCont), ESCAPE));
+    }
+
+    private Specification<Task> withAssigneeIds(List<Long> assigneeIds) {
+        return ((root, query, criteriaBuilder) -> isEmpty(assigneeIds) ? criteriaBuilder.conjunction()
+                : root.get("assignee").get("id").in(assigneeIds));
+    }
+
+    private Specification<Task> withStatusSlugs(List<String> slugs) {
+        return ((root, query, criteriaBuilder) -> isEmpty(slugs) ? criteriaBuilder.conjunction()
+                : root.get("taskStatus").get("slug").in(slugs));
+    }
+
+    /*
+     * Labels are matched with EXISTS subqueries on the join table instead of a join,
+     * so a task with several matching labels is still a single row in pages and counts.
+     */
+    private Specification<Task> withLabelIds(List<Long> labelIds, String labelMatch) {
+        var match = labelMatch == null ? LABEL_MATCH_ANY : labelMatch;
+        if (!LABEL_MATCH_ANY.equals(match) && !LABEL_MATCH_ALL.equals(match)) {
+            throw new BadRequestException(INVALID_LABEL_MATCH_MESSAGE);
+        }
+
+        return (root, query, criteriaBuilder) -> {
+            if (isEmpty(labelIds)) {
+                return criteriaBuilder.conjunction();
+            }
+            if (LABEL_MATCH_ANY.equals(match)) {
+                return hasLabel(root, query, criteriaBuilder, labelIds);
+            }
+            return criteriaBuilder.and(labelIds.stream()
+                    .distinct()
+                    .map(labelId -> hasLabel(root, query, criteriaBuilder, List.of(labelId)))
+                    .toArray(Predicate[]::new));
+        };
+    }
+
+    private Specification<Task> withCreatedAtFrom(LocalDate from) {
+        return ((root, query, criteriaBuilder) -> from == null ? criteriaBuilder.conjunction()
+                : criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), from));
+    }
+
+    private Specification<Task> withCreatedAtTo(LocalDate to) {
+        return ((root, query, criteriaBuilder) -> to == null ? criteriaBuilder.conjunction()
+                : criteriaBuilder.lessThanOrEqualTo(root.get("createdAt"), to));
     }
 
-    private Specification<Task> withAssigneeId(Long assigneeId) {
-        return ((root, query, criteriaBuilder) -> assigneeId == null ? criteriaBuilder.conjunction()
-                : criteriaBuilder.equal(root.get("assignee").get("id"), assigneeId));
+    private static Predicate hasLabel(
+            Root<Task> root,
+            CriteriaQuery<?> query,
+            CriteriaBuilder criteriaBuilder,
+            Collection<Long> labelIds
+    ) {
+        var subquery = query.subquery(Long.class);
+        var task = subquery.correlate(root);
+        var label = task.join("labels");
+        subquery.select(label.get("id")).where(label.get("id").in(labelIds));
+        return criteriaBuilder.exists(subquery);
     }
 
-    private Specification<Task> withStatusSlug(String slug) {
-        return ((root, query, criteriaBuilder) -> slug == null ? criteriaBuilder.conjunction()
-                : criteriaBuilder.equal(root.get("taskStatus").get("slug"), slug));
+    private static boolean isEmpty(Collection<?> values) {
+        return values == null || values.isEmpty();
     }
 
-    private Specification<Task> withLabelId(Long labelId) {
-        return (root, query, criteriaBuilder) -> labelId == null ? criteriaBuilder.conjunction()
-                : criteriaBuilder.equal(root.join("labels", JoinType.INNER).get("id"), labelId);
+    private static String toContainsPattern(String value) {
+        var escaped = value.toLowerCase()
+                .replace(String.valueOf(ESCAPE), String.valueOf(ESCAPE) + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+        return "%" + escaped + "%";
     }
 }
@@ -0,0 +1,36 @@
+package hexlet.code.util;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+public final class BCryptCalibrator {
+
+    private static final int PROBE_STRENGTH = 8;
+
+    private static final int PROBE_ROUNDS = 5;
+
+    private static final int MAX_STRENGTH = 31;
+
+    private BCryptCalibrator() {
+    }
+
+    /*
+     * Each extra unit of strength doubles the work, so timing a cheap probe is enough to extrapolate
+     * the strength whose verification takes about the target on this host. The fastest of a few
+     * probe rounds is used to keep JIT warm-up and scheduling noise out of the estimate.
+     */
+    public static int strengthFor(Duration target, int minimum) {
+        var salt = BCrypt.gensalt(PROBE_STRENGTH);
+        var fastest = Long.MAX_VALUE;
+        for (var i = 0; i < PROBE_ROUNDS; i++) {
+            var start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        var doublings = Math.log((double) target.toNanos() / Math.max(fastest, 1)) / Math.log(2);
+        var strength = PROBE_STRENGTH + (int) Math.round(doublings);
+        return Math.min(Math.max(strength, minimum), MAX_STRENGTH);
+    }
+}
@@ -0,0 +1,60 @@
+package hexlet.code.util;
+
+import hexlet.code.component.CredentialCache;
+import hexlet.code.component.LoginGuard;
+import hexlet.code.exception.TooManyRequestsException;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+public final class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final CredentialCache credentialCache;
+
+    private final LoginGuard loginGuard;
+
+    public CachingDaoAuthenticationProvider(CredentialCache credentialCache, LoginGuard loginGuard) {
+        this.credentialCache = credentialCache;
+        this.loginGuard = loginGuard;
+    }
+
+    /*
+     * The failure limits are applied here, on the calling thread, for /api/login and HTTP Basic alike;
+     * only hashing goes to the login pool (see GuardedPasswordEncoder). Throttling is reported as an
+     * AuthenticationException, which is all the Basic filter passes to its entry point.
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        var username = authentication.getName();
+        var address = authentication.getDetails() instanceof WebAuthenticationDetails details
+                ? details.getRemoteAddress()
+                : "";
+        try {
+            loginGuard.checkAllowed(username, address);
+            return super.authenticate(authentication);
+        } catch (BadCredentialsException e) {
+            loginGuard.recordFailure(username, address);
+            throw e;
+        } catch (TooManyRequestsException e) {
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        var credentials = authentication.getCredentials();
+        if (credentials != null && userDetails.getPassword() != null
+                && credentialCache.contains(userDetails, credentials.toString())) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        credentialCache.put(userDetails, credentials.toString());
+    }
+}
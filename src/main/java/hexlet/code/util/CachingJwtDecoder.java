@@ -0,0 +1,82 @@
+package hexlet.code.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers tokens that already passed signature and claim validation until they expire,
+ * so a client polling with the same token pays for the RSA verification once.
+ */
+public final class CachingJwtDecoder implements JwtDecoder {
+
+    public static final String CACHE_NAME = "jwtDecoder";
+
+    private final JwtDecoder delegate;
+
+    private final Cache<String, Jwt> verified;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maximumTtl, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(maximumTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, verified, CACHE_NAME);
+    }
+
+    /*
+     * Rejected tokens are never stored: the delegate's JwtException propagates out of the mapping
+     * function, so a forged token is verified (and rejected) on every request. Entries expire at the
+     * token's exp claim, capped by the maximum TTL so a rotated key stops being trusted in bounded time.
+     */
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        return verified.get(digest(token), key -> delegate.decode(token));
+    }
+
+    private static String digest(String token) {
+        try {
+            var sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record TokenExpiry(Duration maximumTtl) implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            var ttl = maximumTtl;
+            if (jwt.getExpiresAt() != null) {
+                var untilExpiry = Duration.between(Instant.now(), jwt.getExpiresAt());
+                ttl = untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+            }
+            return Math.max(ttl.toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
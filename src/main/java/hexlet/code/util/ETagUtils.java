@@ -0,0 +1,105 @@
+package hexlet.code.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class ETagUtils {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    // In message converter order, so JSON wins ties as it does in content negotiation.
+    private static final List<MediaType> PRODUCIBLE = List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR,
+            APPLICATION_SMILE
+    );
+
+    private static final Map<MediaType, String> SUFFIXES = Map.of(
+            MediaType.APPLICATION_JSON, "",
+            MediaType.APPLICATION_CBOR, "-cbor",
+            APPLICATION_SMILE, "-smile"
+    );
+
+    private static final List<String> REPRESENTATIONS = List.of("", "-cbor", "-smile");
+
+    private ETagUtils() {
+    }
+
+    /*
+     * Sets the ETag and a revalidating Cache-Control (instead of Spring Security's no-store, which would
+     * stop browsers from ever sending If-None-Match) and answers 304 when the client's copy is current.
+     * JSON, CBOR and Smile bodies of the same version get distinct tags, as strong tags must.
+     */
+    public static boolean isNotModified(ServletWebRequest request, String etag) {
+        var response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return request.checkNotModified(withRepresentation(etag, getRepresentation(request)));
+    }
+
+    /*
+     * If-Match uses strong comparison, so weak validators never match. The tag may come from any
+     * representation of the resource.
+     */
+    public static boolean matches(String ifMatch, String etag) {
+        for (var candidate : ifMatch.split(",")) {
+            var value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            for (var representation : REPRESENTATIONS) {
+                if (value.equals("\"" + etag + representation + "\"")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Picks the type the message converters will write: the accepted types ordered by quality, then
+     * by specificity, as Spring's content negotiation does. Without an Accept header the body is JSON.
+     */
+    private static String getRepresentation(ServletWebRequest request) {
+        var accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return "";
+        }
+        try {
+            var candidates = new ArrayList<MediaType>();
+            for (var mediaType : MediaType.parseMediaTypes(accept)) {
+                for (var producible : PRODUCIBLE) {
+                    if (mediaType.isCompatibleWith(producible)) {
+                        candidates.add(producible.copyQualityValue(mediaType));
+                    }
+                }
+            }
+            MimeTypeUtils.sortBySpecificity(candidates);
+            return candidates.isEmpty() ? "" : SUFFIXES.get(candidates.get(0).removeQualityValue());
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            return "";
+        }
+    }
+
+    private static String withRepresentation(String etag, String representation) {
+        if (etag.endsWith("\"")) {
+            return etag.substring(0, etag.length() - 1) + representation + "\"";
+        }
+        return etag + representation;
+    }
+}
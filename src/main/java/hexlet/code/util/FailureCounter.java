@@ -0,0 +1,52 @@
+package hexlet.code.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-window counters per key, held in a bounded cache. Each entry packs the window number into the high
+ * half of a long and the count into the low half, so counting is a single CAS. Keys are compared exactly, so
+ * failures on one account never throttle another; once the cache is full the least used keys are dropped,
+ * which can only forget failures, never attribute them to someone else.
+ */
+public final class FailureCounter {
+
+    private final Cache<String, AtomicLong> counts;
+
+    private final long windowMillis;
+
+    public FailureCounter(long maximumKeys, Duration window) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterWrite(window)
+                .build();
+        this.windowMillis = window.toMillis();
+    }
+
+    public int get(String key) {
+        var count = counts.getIfPresent(key);
+        if (count == null) {
+            return 0;
+        }
+        var value = count.get();
+        return (value >>> 32) == currentWindow() ? (int) value : 0;
+    }
+
+    public void increment(String key) {
+        var window = currentWindow();
+        counts.get(key, k -> new AtomicLong())
+                .updateAndGet(value -> (value >>> 32) == window ? value + 1 : (window << 32) | 1);
+    }
+
+    public long secondsUntilReset() {
+        var remaining = windowMillis - System.currentTimeMillis() % windowMillis;
+        return Math.max(Duration.ofMillis(remaining).toSeconds(), 1);
+    }
+
+    private long currentWindow() {
+        return System.currentTimeMillis() / windowMillis;
+    }
+}
@@ -0,0 +1,35 @@
+package hexlet.code.util;
+
+import hexlet.code.component.LoginGuard;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Sends the expensive calls of another encoder to the login pool, so that only actual hashing competes
+ * for its threads; user lookups and credential cache hits stay on the request thread.
+ */
+public final class GuardedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final LoginGuard loginGuard;
+
+    public GuardedPasswordEncoder(PasswordEncoder delegate, LoginGuard loginGuard) {
+        this.delegate = delegate;
+        this.loginGuard = loginGuard;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return loginGuard.hash(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return loginGuard.hash(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
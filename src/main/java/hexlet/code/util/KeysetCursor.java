@@ -0,0 +1,71 @@
+package hexlet.code.util;
+
+import hexlet.code.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Cursor tokens are the base64 of the position followed by an HMAC of it, so clients can't forge a
+ * position for a property or row they were never handed.
+ */
+public record KeysetCursor(String property, Sort.Direction direction, Long id, String value) {
+
+    private static final String INVALID_CURSOR_MESSAGE = "Invalid cursor";
+
+    private static final String SEPARATOR = "\n";
+
+    private static final String VALUE_PREFIX = "=";
+
+    private static final String SIGNATURE_SEPARATOR = ".";
+
+    private static final int PARTS = 4;
+
+    public String encode(SecretKey key) {
+        var valuePart = value == null ? "" : VALUE_PREFIX + value;
+        var raw = String.join(SEPARATOR, property, direction.name(), String.valueOf(id), valuePart)
+                .getBytes(StandardCharsets.UTF_8);
+        var encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(raw) + SIGNATURE_SEPARATOR + encoder.encodeToString(sign(key, raw));
+    }
+
+    public static KeysetCursor decode(String token, SecretKey key) {
+        try {
+            var separator = token.indexOf(SIGNATURE_SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException(INVALID_CURSOR_MESSAGE);
+            }
+            var decoder = Base64.getUrlDecoder();
+            var bytes = decoder.decode(token.substring(0, separator));
+            var signature = decoder.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(key, bytes))) {
+                throw new BadRequestException(INVALID_CURSOR_MESSAGE);
+            }
+
+            var raw = new String(bytes, StandardCharsets.UTF_8);
+            var parts = raw.split(SEPARATOR, PARTS);
+            if (parts.length != PARTS) {
+                throw new BadRequestException(INVALID_CURSOR_MESSAGE);
+            }
+            var value = parts[3].isEmpty() ? null : parts[3].substring(VALUE_PREFIX.length());
+            return new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), value);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(INVALID_CURSOR_MESSAGE);
+        }
+    }
+
+    private static byte[] sign(SecretKey key, byte[] raw) {
+        try {
+            var mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac.doFinal(raw);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
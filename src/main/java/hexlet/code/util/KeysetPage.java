@@ -0,0 +1,14 @@
+package hexlet.code.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream()
+                .<R>map(mapper)
+                .toList();
+        return new KeysetPage<>(mapped, nextCursor);
+    }
+}
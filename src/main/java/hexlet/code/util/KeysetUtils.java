@@ -0,0 +1,163 @@
+package hexlet.code.util;
+
+import hexlet.code.component.PaginationProperties;
+import hexlet.code.exception.BadRequestException;
+import hexlet.code.model.BaseEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+@Component
+public class KeysetUtils {
+
+    private static final String INVALID_CURSOR_MESSAGE = "Invalid cursor";
+
+    private static final String ID = "id";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ListUtils listUtils;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    private SecretKey key;
+
+    /*
+     * Without a configured secret each process signs with its own random key, which is fine for a
+     * single instance; replicas behind a load balancer need pagination.cursor-secret to share cursors.
+     */
+    @PostConstruct
+    private void init() {
+        var secret = paginationProperties.getCursorSecret();
+        byte[] bytes;
+        if (secret == null || secret.isBlank()) {
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+        } else {
+            bytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    public <T extends BaseEntity> KeysetPage<T> getPage(
+            Class<T> type,
+            Specification<T> spec,
+            String cursor,
+            Integer size,
+            String orderDirection,
+            String orderProperty
+    ) {
+        listUtils.checkSortProperty(type, orderProperty);
+        var limit = listUtils.getPageSize(0, size);
+        var direction = Sort.Direction.fromString(orderDirection);
+        var after = cursor.isBlank() ? null : KeysetCursor.decode(cursor, key);
+        if (after != null && (!after.property().equals(orderProperty) || after.direction() != direction)) {
+            throw new BadRequestException(INVALID_CURSOR_MESSAGE);
+        }
+
+        var sort = Sort.by(direction, orderProperty);
+        if (!ID.equals(orderProperty)) {
+            sort = sort.and(Sort.by(direction, ID));
+        }
+
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(type);
+        var root = query.from(type);
+        var predicate = spec.and(KeysetUtils.<T>seek(after)).toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        var content = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+
+        String nextCursor = null;
+        if (content.size() == limit) {
+            var last = content.get(content.size() - 1);
+            var value = new BeanWrapperImpl(last).getPropertyValue(orderProperty);
+            var lastValue = value == null ? null : value.toString();
+            nextCursor = new KeysetCursor(orderProperty, direction, last.getId(), lastValue).encode(key);
+        }
+        return new KeysetPage<>(content, nextCursor);
+    }
+
+    /*
+     * Rows sort by (property, id) with nulls first in both directions
+     * (hibernate.order_by.default_null_ordering), so everything after a null key is either
+     * another null with a later id or any non-null key.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Specification<T> seek(KeysetCursor after) {
+        return (root, query, cb) -> {
+            if (after == null) {
+                return null;
+            }
+
+            Path<Long> id = root.get(ID);
+            var ascending = after.direction().isAscending();
+            var idPredicate = ascending ? cb.greaterThan(id, after.id()) : cb.lessThan(id, after.id());
+            if (ID.equals(after.property())) {
+                return idPredicate;
+            }
+
+            var key = (Path<Comparable>) getPath(root, after.property());
+            if (after.value() == null) {
+                return cb.or(cb.and(cb.isNull(key), idPredicate), cb.isNotNull(key));
+            }
+
+            Comparable value = convert(after.value(), key.getJavaType());
+            var keyPredicate = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+            return cb.or(keyPredicate, cb.and(cb.equal(key, value), idPredicate));
+        };
+    }
+
+    private static Path<?> getPath(Root<?> root, String property) {
+        Path<?> path = root;
+        for (var part : property.split("\\.")) {
+            path = path.get(part);
+        }
+        return path;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable convert(String value, Class<?> type) {
+        try {
+            if (String.class.equals(type)) {
+                return value;
+            }
+            if (Long.class.equals(type)) {
+                return Long.valueOf(value);
+            }
+            if (Integer.class.equals(type)) {
+                return Integer.valueOf(value);
+            }
+            if (LocalDate.class.equals(type)) {
+                return LocalDate.parse(value);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException(INVALID_CURSOR_MESSAGE);
+        }
+        throw new BadRequestException(INVALID_CURSOR_MESSAGE);
+    }
+}
@@ -1,13 +1,123 @@
 package hexlet.code.util;
 
-import org.springframework.data.domain.PageRequest;
+import hexlet.code.component.PaginationProperties;
+import hexlet.code.exception.BadRequestException;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
 public class ListUtils {
 
-    public static PageRequest getPageRequest(Integer start, Integer end, String orderDirection, String orderProperty) {
+    private static final String INVALID_RANGE_MESSAGE = "Invalid range";
+
+    private static final String INVALID_SORT_MESSAGE = "Invalid sort property";
+
+    private static final String OFFSET_TOO_LARGE_MESSAGE = "Range start is too large, use _cursor paging instead";
+
+    /*
+     * Sort values end up in cursors and drive the row order, so only columns that the list DTOs
+     * already expose may be used; anything else (passwords, joined entities) is rejected.
+     */
+    private static final Map<Class<?>, Set<String>> SORTABLE_PROPERTIES = Map.of(
+            User.class, Set.of("id", "firstName", "lastName", "email", "createdAt"),
+            Task.class, Set.of("id", "name", "index", "createdAt"),
+            TaskStatus.class, Set.of("id", "name", "slug", "createdAt"),
+            Label.class, Set.of("id", "name", "createdAt")
+    );
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    private void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /*
+     * The body of every index endpoint: 304 for a current list ETag, otherwise an offset page, or a keyset
+     * page with X-Next-Cursor when the client sent a cursor. Returns null when the response is not modified.
+     * <p>
+     * The tag, page and count share one read-only transaction, so with a replica they are all read from
+     * the same node, and the tag is read first so that the page is never older than it.
+     */
+    public <T> ResponseEntity<List<T>> getListResponse(
+            ServletWebRequest request,
+            Supplier<String> listETag,
+            String cursor,
+            Function<String, KeysetPage<T>> pageAfter,
+            Supplier<List<T>> page,
+            Supplier<Long> totalCount
+    ) {
+        return readOnlyTransaction.execute(status -> {
+            if (ETagUtils.isNotModified(request, listETag.get())) {
+                return null;
+            }
+
+            var response = ResponseEntity.ok();
+            List<T> content;
+            if (cursor != null) {
+                var keysetPage = pageAfter.apply(cursor);
+                if (keysetPage.nextCursor() != null) {
+                    response.header("X-Next-Cursor", keysetPage.nextCursor());
+                }
+                content = keysetPage.content();
+            } else {
+                content = page.get();
+            }
+            return response.header("X-Total-Count", String.valueOf(totalCount.get()))
+                    .body(content);
+        });
+    }
+
+    public Pageable getPageRequest(
+            Class<?> type,
+            Integer start,
+            Integer end,
+            String orderDirection,
+            String orderProperty
+    ) {
+        checkSortProperty(type, orderProperty);
         var dir = Sort.Direction.fromString(orderDirection);
         var sort = Sort.by(dir, orderProperty);
-        return PageRequest.of(start, end, sort);
+        return new OffsetPageRequest(start, getPageSize(start, end), sort);
+    }
+
+    public int getPageSize(Integer start, Integer end) {
+        if (start < 0 || end <= start) {
+            throw new BadRequestException(INVALID_RANGE_MESSAGE);
+        }
+        if (start > paginationProperties.getMaxOffset()) {
+            throw new BadRequestException(OFFSET_TOO_LARGE_MESSAGE);
+        }
+        return Math.min(end - start, paginationProperties.getMaxPageSize());
+    }
+
+    public void checkSortProperty(Class<?> type, String orderProperty) {
+        if (!SORTABLE_PROPERTIES.getOrDefault(type, Set.of()).contains(orderProperty)) {
+            throw new BadRequestException(INVALID_SORT_MESSAGE);
+        }
     }
 }
@@ -0,0 +1,61 @@
+package hexlet.code.util;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+public final class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> false);
+
+    public static void requirePrimary(boolean required) {
+        PRIMARY_REQUIRED.set(required);
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    // Carries the calling thread's routing over to work that runs on another thread.
+    public static Runnable propagate(Runnable task) {
+        var required = PRIMARY_REQUIRED.get();
+        return () -> {
+            var previous = PRIMARY_REQUIRED.get();
+            PRIMARY_REQUIRED.set(required);
+            try {
+                task.run();
+            } finally {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        var required = PRIMARY_REQUIRED.get();
+        return () -> {
+            var previous = PRIMARY_REQUIRED.get();
+            PRIMARY_REQUIRED.set(required);
+            try {
+                return task.get();
+            } finally {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        };
+    }
+
+    /*
+     * Resolved when the first statement runs (the data source sits behind a LazyConnectionDataSourceProxy),
+     * by which point the transaction's read-only flag is bound to the thread.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        var readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return readOnly && !PRIMARY_REQUIRED.get() ? Route.REPLICA : Route.PRIMARY;
+    }
+}
@@ -0,0 +1,30 @@
+package hexlet.code.util;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+
+import java.util.Collection;
+import java.util.Map;
+
+public class UserAuthenticationToken extends AbstractOAuth2TokenAuthenticationToken<Jwt> {
+
+    public UserAuthenticationToken(
+            Jwt jwt,
+            UserPrincipal principal,
+            Collection<? extends GrantedAuthority> authorities
+    ) {
+        super(jwt, principal, jwt, authorities);
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Map<String, Object> getTokenAttributes() {
+        return getToken().getClaims();
+    }
+
+    @Override
+    public String getName() {
+        return ((UserPrincipal) getPrincipal()).getName();
+    }
+}
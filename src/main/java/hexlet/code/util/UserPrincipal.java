@@ -0,0 +1,10 @@
+package hexlet.code.util;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+public record UserPrincipal(Long id, String email) implements AuthenticatedPrincipal {
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -11,13 +11,21 @@ public class UserUtils {
     @Autowired
     private UserRepository userRepository;
 
-    public User getCurrentUser() {
+    public Long getCurrentUserId() {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             return null;
         }
-        var email = authentication.getName();
-        return userRepository.findByEmail(email).get();
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.id();
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        // tokens issued before the uid claim was added
+        return userRepository.findByEmail(authentication.getName())
+                .map(User::getId)
+                .orElse(null);
     }
 
     public User getTestUser() {
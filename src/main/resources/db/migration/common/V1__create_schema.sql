@@ -0,0 +1,59 @@
+-- Databases created by ddl-auto=update are baselined at version 0, so this runs against them too:
+-- their tables (with IDENTITY ids) are kept and only the id sequences are added.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS task_statuses_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS labels_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS tasks_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    email VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    created_at DATE,
+    updated_at DATE,
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT users_email_key UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS task_statuses (
+    id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    slug VARCHAR(255) NOT NULL,
+    created_at DATE,
+    CONSTRAINT task_statuses_pkey PRIMARY KEY (id),
+    CONSTRAINT task_statuses_slug_key UNIQUE (slug)
+);
+
+CREATE TABLE IF NOT EXISTS labels (
+    id BIGINT NOT NULL,
+    name VARCHAR(1000) NOT NULL,
+    created_at DATE,
+    CONSTRAINT labels_pkey PRIMARY KEY (id),
+    CONSTRAINT labels_name_key UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    index INTEGER,
+    description VARCHAR(255),
+    task_status_id BIGINT,
+    assignee_id BIGINT,
+    created_at DATE,
+    CONSTRAINT tasks_pkey PRIMARY KEY (id),
+    CONSTRAINT tasks_task_status_id_fkey FOREIGN KEY (task_status_id) REFERENCES task_statuses (id),
+    CONSTRAINT tasks_assignee_id_fkey FOREIGN KEY (assignee_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS tasks_labels (
+    task_id BIGINT NOT NULL,
+    labels_id BIGINT NOT NULL,
+    CONSTRAINT tasks_labels_pkey PRIMARY KEY (task_id, labels_id),
+    CONSTRAINT tasks_labels_task_id_fkey FOREIGN KEY (task_id) REFERENCES tasks (id),
+    CONSTRAINT tasks_labels_labels_id_fkey FOREIGN KEY (labels_id) REFERENCES labels (id)
+);
@@ -0,0 +1,14 @@
+-- Equality filters from TaskSpecification, keyed by id so the default id order and keyset pages stay in the index.
+CREATE INDEX IF NOT EXISTS tasks_task_status_id_idx ON tasks (task_status_id, id);
+
+CREATE INDEX IF NOT EXISTS tasks_assignee_id_idx ON tasks (assignee_id, id);
+
+-- Range filter and _sort columns; nulls sort first (hibernate.order_by.default_null_ordering).
+CREATE INDEX IF NOT EXISTS tasks_created_at_idx ON tasks (created_at NULLS FIRST, id);
+
+CREATE INDEX IF NOT EXISTS tasks_index_idx ON tasks (index NULLS FIRST, id);
+
+CREATE INDEX IF NOT EXISTS tasks_name_idx ON tasks (name, id);
+
+-- The primary key serves task_id lookups; label filters and label deletes go through labels_id.
+CREATE INDEX IF NOT EXISTS tasks_labels_labels_id_idx ON tasks_labels (labels_id, task_id);
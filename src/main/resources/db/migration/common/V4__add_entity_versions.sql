@@ -0,0 +1,8 @@
+-- Optimistic-lock versions, also used as the source of per-resource ETags.
+ALTER TABLE tasks ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE task_statuses ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE labels ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
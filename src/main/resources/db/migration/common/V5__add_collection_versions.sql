@@ -0,0 +1,15 @@
+-- Change counters behind the list ETags, bumped in the same transaction as the writes they count.
+-- Each collection is split over 16 rows so that concurrent writers rarely wait on the same row lock;
+-- a collection's version is the sum of its rows.
+CREATE TABLE collection_versions (
+    name VARCHAR(64) NOT NULL,
+    shard INTEGER NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT collection_versions_pkey PRIMARY KEY (name, shard)
+);
+
+INSERT INTO collection_versions (name, shard)
+SELECT collections.name, shards.shard
+FROM (VALUES ('tasks'), ('users'), ('labels'), ('task_statuses')) AS collections (name)
+CROSS JOIN (VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15))
+    AS shards (shard);
@@ -0,0 +1,17 @@
+-- Trigram index for titleCont.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS tasks_name_trgm_idx ON tasks USING gin (lower(name) gin_trgm_ops);
+
+-- Databases created before the id sequences have rows with IDENTITY ids, so move each sequence past them.
+SELECT setval('tasks_seq', (SELECT max(id) FROM tasks))
+WHERE (SELECT max(id) FROM tasks) > (SELECT last_value FROM tasks_seq);
+
+SELECT setval('labels_seq', (SELECT max(id) FROM labels))
+WHERE (SELECT max(id) FROM labels) > (SELECT last_value FROM labels_seq);
+
+SELECT setval('task_statuses_seq', (SELECT max(id) FROM task_statuses))
+WHERE (SELECT max(id) FROM task_statuses) > (SELECT last_value FROM task_statuses_seq);
+
+SELECT setval('users_seq', (SELECT max(id) FROM users))
+WHERE (SELECT max(id) FROM users) > (SELECT last_value FROM users_seq);
@@ -0,0 +1,72 @@
+package hexlet.code;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class FlywayMigrationTest {
+
+    // The schema ddl-auto=update generated before Flyway took over, with IDENTITY ids and no sequences.
+    private static final String[] LEGACY_SCHEMA = {
+        "create table users (created_at date, updated_at date, id bigint generated by default as identity, "
+                + "email varchar(255) unique, first_name varchar(255), last_name varchar(255), "
+                + "password varchar(255) not null, primary key (id))",
+        "create table task_statuses (created_at date, id bigint generated by default as identity, "
+                + "name varchar(255) not null, slug varchar(255) not null unique, primary key (id))",
+        "create table labels (created_at date, id bigint generated by default as identity, "
+                + "name varchar(1000) not null unique, primary key (id))",
+        "create table tasks (index integer, assignee_id bigint, created_at date, "
+                + "id bigint generated by default as identity, task_status_id bigint, description varchar(255), "
+                + "name varchar(255) not null, primary key (id))",
+        "create table tasks_labels (labels_id bigint not null, task_id bigint not null, "
+                + "primary key (labels_id, task_id))",
+        "alter table tasks add constraint fk_tasks_assignee foreign key (assignee_id) references users",
+        "alter table tasks add constraint fk_tasks_status foreign key (task_status_id) references task_statuses",
+        "alter table tasks_labels add constraint fk_tasks_labels_label foreign key (labels_id) references labels",
+        "alter table tasks_labels add constraint fk_tasks_labels_task foreign key (task_id) references tasks"
+    };
+
+    @Autowired
+    private FlywayProperties flywayProperties;
+
+    @Test
+    public void testMigrateLegacySchema() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.batchUpdate(LEGACY_SCHEMA);
+        jdbcTemplate.update("insert into task_statuses (name, slug) values ('Draft', 'draft')");
+        jdbcTemplate.update("insert into users (email, password) values ('legacy@example.com', 'hash')");
+        jdbcTemplate.update("insert into labels (name) values ('feature')");
+        jdbcTemplate.update("insert into tasks (name, task_status_id, assignee_id) values ('Legacy', 1, 1)");
+        jdbcTemplate.update("insert into tasks_labels (task_id, labels_id) values (1, 1)");
+
+        var locations = flywayProperties.getLocations()
+                .stream()
+                .map(location -> location.replace("{vendor}", "h2"))
+                .toArray(String[]::new);
+        var result = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations)
+                .baselineOnMigrate(flywayProperties.isBaselineOnMigrate())
+                .baselineVersion(flywayProperties.getBaselineVersion())
+                .load()
+                .migrate();
+
+        assertThat(result.success).isTrue();
+        assertThat(result.migrations).extracting(migration -> migration.version).contains("1");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tasks_labels", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select version from tasks", Long.class)).isZero();
+        for (var sequence : new String[] {"users_seq", "task_statuses_seq", "labels_seq", "tasks_seq"}) {
+            assertThat(jdbcTemplate.queryForObject("select next value for " + sequence, Long.class)).isNotNull();
+        }
+    }
+}
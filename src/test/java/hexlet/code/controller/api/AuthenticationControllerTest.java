@@ -1,23 +1,34 @@
 package hexlet.code.controller.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.component.LoginProperties;
 import hexlet.code.mapper.UserMapper;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.util.CachingJwtDecoder;
+import hexlet.code.util.JWTUtils;
 import hexlet.code.util.ModelGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -40,6 +51,18 @@ class AuthenticationControllerTest {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private JWTUtils jwtUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LoginProperties loginProperties;
+
     @BeforeEach
     public void setUp() {
         testUser = Instancio.of(modelGenerator.getUserModel()).create();
@@ -55,12 +78,39 @@ class AuthenticationControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(om.writeValueAsString(Map.of("username", testUser.getEmail(), "password", password)));
 
-        var result = mockMvc.perform(request)
+        var pending = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        var result = mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isOk())
                 .andReturn();
 
         var body = result.getResponse().getContentAsString();
         assertThat(body).isNotBlank();
+
+        var jwt = jwtDecoder.decode(body);
+        assertThat(jwt.getSubject()).isEqualTo(testUser.getEmail());
+        assertThat(jwt.<Number>getClaim(JWTUtils.USER_ID_CLAIM).longValue()).isEqualTo(testUser.getId());
+    }
+
+    @Test
+    void testDecodeReusesVerifiedToken() {
+        userRepository.save(testUser);
+        var token = jwtUtils.generateToken(testUser);
+        var hits = meterRegistry.get("cache.gets")
+                .tags("cache", CachingJwtDecoder.CACHE_NAME, "result", "hit")
+                .functionCounter();
+        var hitsBefore = hits.count();
+
+        var first = jwtDecoder.decode(token);
+        var second = jwtDecoder.decode(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(hits.count()).isEqualTo(hitsBefore + 1);
+
+        var tampered = token.substring(0, token.length() - 4) + "AAAA";
+        assertThatThrownBy(() -> jwtDecoder.decode(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtDecoder.decode(tampered)).isInstanceOf(JwtException.class);
     }
 
     @Test
@@ -72,7 +122,32 @@ class AuthenticationControllerTest {
                 .content(om.writeValueAsString(
                         Map.of("username", testUser.getEmail(), "password", testUser.getPassword())));
 
-        mockMvc.perform(request)
+        var pending = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void testLoginThrottledAfterFailures() throws Exception {
+        userRepository.save(testUser);
+        var login = post("/api/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(
+                        Map.of("username", testUser.getEmail(), "password", testUser.getPassword())));
+
+        for (var i = 0; i < loginProperties.getMaxFailuresPerAccount(); i++) {
+            var pending = mockMvc.perform(login)
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(pending))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(login)
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
 }
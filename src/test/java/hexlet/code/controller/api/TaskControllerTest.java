@@ -1,6 +1,9 @@
 package hexlet.code.controller.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import hexlet.code.dto.TaskDTO.TaskFilterDTO;
 import hexlet.code.model.Label;
 import hexlet.code.model.Task;
 import hexlet.code.model.TaskStatus;
@@ -9,34 +12,66 @@ import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.service.TaskImportService;
+import hexlet.code.service.TaskService;
+import hexlet.code.util.ETagUtils;
 import hexlet.code.util.ModelGenerator;
 import hexlet.code.util.UserUtils;
+import jakarta.persistence.EntityManagerFactory;
 import net.datafaker.Faker;
+import org.hibernate.SessionFactory;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureMockMvc
 public class TaskControllerTest {
+    private static final String TASK_VERSION_QUERY =
+            "SELECT SUM(version) FROM collection_versions WHERE name = 'tasks'";
+
     private Task testTask;
 
     private SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor token;
@@ -68,6 +103,21 @@ public class TaskControllerTest {
     @Autowired
     private Faker faker;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @BeforeEach
     public void setUp() {
         TaskStatus testTaskStatus = Instancio.of(modelGenerator.getTaskStatusModel()).create();
@@ -119,8 +169,146 @@ public class TaskControllerTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
+        var expectedSize = Math.max(0, Math.min(end, taskRepository.count()) - start);
         var body = result.getResponse().getContentAsString();
-        assertThatJson(body).isArray().isEmpty();
+        assertThatJson(body).isArray().hasSize((int) expectedSize);
+    }
+
+    @Test
+    public void testIndexStatementCount() throws Exception {
+        for (var i = 0; i < 100; i++) {
+            var status = Instancio.of(modelGenerator.getTaskStatusModel()).create();
+            taskStatusRepository.save(status);
+
+            var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+
+            var user = Instancio.of(modelGenerator.getUserModel()).create();
+            userRepository.save(user);
+
+            var task = Instancio.of(modelGenerator.getTaskModel()).create();
+            task.setTaskStatus(status);
+            task.setAssignee(user);
+            task.setLabels(Set.of(label));
+            taskRepository.save(task);
+        }
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var request = get("/api/tasks")
+                .with(token)
+                .param("_start", "0")
+                .param("_end", "100");
+
+        var result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var body = result.getResponse().getContentAsString();
+        assertThatJson(body).isArray().hasSize(100);
+        // projected page rows, their label ids, X-Total-Count
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void testSaveAllBatchesInserts() {
+        var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var tasks = new ArrayList<Task>();
+        for (var i = 0; i < 100; i++) {
+            var task = Instancio.of(modelGenerator.getTaskModel()).create();
+            task.setTaskStatus(testTask.getTaskStatus());
+            task.setAssignee(userUtils.getTestUser());
+            task.setLabels(Set.of(label));
+            tasks.add(task);
+        }
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        taskRepository.saveAll(tasks);
+
+        assertThat(tasks).allSatisfy(task -> assertThat(task.getId()).isNotNull());
+        // a few sequence allocations plus one statement per 50-row batch of tasks and tasks_labels rows
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    public void testFilterQueriesUseIndexes() {
+        var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var tasks = new ArrayList<Task>();
+        for (var i = 0; i < 1000; i++) {
+            var task = Instancio.of(modelGenerator.getTaskModel()).create();
+            task.setTaskStatus(testTask.getTaskStatus());
+            task.setAssignee(userUtils.getTestUser());
+            task.setLabels(Set.of(label));
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+
+        var queries = List.of(
+                "SELECT id FROM tasks WHERE task_status_id = " + testTask.getTaskStatus().getId(),
+                "SELECT id FROM tasks WHERE assignee_id = " + userUtils.getTestUser().getId(),
+                "SELECT id FROM tasks WHERE created_at BETWEEN DATE '2000-01-01' AND DATE '2000-01-31'",
+                "SELECT task_id FROM tasks_labels WHERE labels_id = " + label.getId()
+        );
+        for (var query : queries) {
+            var plan = jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+            assertThat(plan).as(query).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    @Test
+    public void testIndexInvalidRange() throws Exception {
+        var request = get("/api/tasks")
+                .with(token)
+                .param("_start", "20")
+                .param("_end", "10");
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testIndexCursorPaging() throws Exception {
+        for (var i = 0; i < 3; i++) {
+            var task = Instancio.of(modelGenerator.getTaskModel()).create();
+            task.setTaskStatus(testTask.getTaskStatus());
+            taskRepository.save(task);
+        }
+
+        var firstResult = mockMvc.perform(get("/api/tasks")
+                        .with(token)
+                        .param("_cursor", "")
+                        .param("_end", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var firstBody = om.readTree(firstResult.getResponse().getContentAsString());
+        assertThat(firstBody.size()).isEqualTo(2);
+
+        var nextCursor = firstResult.getResponse().getHeader("X-Next-Cursor");
+        assertThat(nextCursor).isNotNull();
+
+        var secondResult = mockMvc.perform(get("/api/tasks")
+                        .with(token)
+                        .param("_cursor", nextCursor)
+                        .param("_end", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var secondBody = om.readTree(secondResult.getResponse().getContentAsString());
+        assertThat(secondBody.size()).isPositive();
+        assertThat(secondBody.get(0).get("id").asLong()).isGreaterThan(firstBody.get(1).get("id").asLong());
+    }
+
+    @Test
+    public void testIndexInvalidCursor() throws Exception {
+        var request = get("/api/tasks")
+                .with(token)
+                .param("_cursor", "not-a-cursor");
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -170,6 +358,293 @@ public class TaskControllerTest {
         assertThat(Long.valueOf(totalCount)).isEqualTo(1);
     }
 
+    @Test
+    public void testIndexMultiValueFilter() throws Exception {
+        var prefix = "Multi " + UUID.randomUUID();
+        var firstLabel = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var secondLabel = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var secondStatus = taskStatusRepository.save(Instancio.of(modelGenerator.getTaskStatusModel()).create());
+
+        var bothLabels = Instancio.of(modelGenerator.getTaskModel()).create();
+        bothLabels.setName(prefix + " both");
+        bothLabels.setTaskStatus(testTask.getTaskStatus());
+        bothLabels.setLabels(Set.of(firstLabel, secondLabel));
+        taskRepository.save(bothLabels);
+
+        var firstLabelOnly = Instancio.of(modelGenerator.getTaskModel()).create();
+        firstLabelOnly.setName(prefix + " first");
+        firstLabelOnly.setTaskStatus(secondStatus);
+        firstLabelOnly.setLabels(Set.of(firstLabel));
+        taskRepository.save(firstLabelOnly);
+
+        var labelIds = firstLabel.getId() + "," + secondLabel.getId();
+        var statuses = testTask.getTaskStatus().getSlug() + "," + secondStatus.getSlug();
+
+        var anyResult = mockMvc.perform(get("/api/tasks")
+                        .with(token)
+                        .param("titleCont", prefix)
+                        .param("status", statuses)
+                        .param("labelId", labelIds)
+                        .param("createdAtGte", LocalDate.now().toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThatJson(anyResult.getResponse().getContentAsString()).isArray().hasSize(2);
+        assertThat(anyResult.getResponse().getHeader("X-Total-Count")).isEqualTo("2");
+
+        var allResult = mockMvc.perform(get("/api/tasks")
+                        .with(token)
+                        .param("titleCont", prefix)
+                        .param("labelId", labelIds)
+                        .param("labelMatch", "all"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThatJson(allResult.getResponse().getContentAsString()).and(
+                v -> v.isArray().hasSize(1),
+                v -> v.node("[0].id").isEqualTo(bothLabels.getId())
+        );
+
+        var pastResult = mockMvc.perform(get("/api/tasks")
+                        .with(token)
+                        .param("titleCont", prefix)
+                        .param("createdAtLte", LocalDate.now().minusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThatJson(pastResult.getResponse().getContentAsString()).isArray().isEmpty();
+
+        mockMvc.perform(get("/api/tasks").with(token).param("labelMatch", "some"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        taskRepository.save(testTask);
+
+        var exportRequest = get("/api/tasks/export")
+                .with(token)
+                .param("titleCont", testTask.getName())
+                .param("status", testTask.getTaskStatus().getSlug());
+
+        var asyncResult = mockMvc.perform(exportRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var lines = result.getResponse().getContentAsString().lines().toList();
+        assertThat(lines).hasSize(1);
+        assertThatJson(lines.get(0)).and(
+                v -> v.node("id").isEqualTo(testTask.getId()),
+                v -> v.node("title").isEqualTo(testTask.getName()),
+                v -> v.node("status").isEqualTo(testTask.getTaskStatus().getSlug())
+        );
+    }
+
+    @Test
+    public void testImportJson() throws Exception {
+        var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var name = "Imported " + UUID.randomUUID();
+        var rows = List.of(
+                Map.of(
+                        "title", name,
+                        "status", testTask.getTaskStatus().getSlug(),
+                        "assignee_id", userUtils.getTestUser().getId(),
+                        "taskLabelIds", List.of(label.getId())
+                ),
+                Map.of("title", name, "status", "unknown-status")
+        );
+
+        var request = post("/api/tasks/import")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(rows));
+        var result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).and(
+                v -> v.node("imported").isEqualTo(1),
+                v -> v.node("errors").isArray().hasSize(1),
+                v -> v.node("errors[0].row").isEqualTo(2),
+                v -> v.node("errors[0].message").isEqualTo("Status not found")
+        );
+
+        var task = taskRepository.findByName(name).orElseThrow();
+        assertThat(task.getTaskStatus().getSlug()).isEqualTo(testTask.getTaskStatus().getSlug());
+        assertThat(task.getAssignee().getId()).isEqualTo(userUtils.getTestUser().getId());
+        assertThat(task.getLabels()).extracting(Label::getId).containsExactly(label.getId());
+    }
+
+    @Test
+    public void testImportCsv() throws Exception {
+        var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var name = "Imported " + UUID.randomUUID();
+        var slug = testTask.getTaskStatus().getSlug();
+        var csv = "title,content,status,assignee_id,taskLabelIds\n"
+                + name + ",description," + slug + ",," + label.getId() + "\n"
+                + ",description," + slug + ",,\n"
+                + name + ",," + slug + ",,-1\n";
+
+        var request = post("/api/tasks/import")
+                .with(token)
+                .contentType("text/csv")
+                .content(csv);
+        var result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).and(
+                v -> v.node("imported").isEqualTo(1),
+                v -> v.node("errors").isArray().hasSize(2),
+                v -> v.node("errors[0].row").isEqualTo(2),
+                v -> v.node("errors[1].row").isEqualTo(3),
+                v -> v.node("errors[1].message").isEqualTo("Label not found")
+        );
+
+        var task = taskRepository.findByName(name).orElseThrow();
+        assertThat(task.getDescription()).isEqualTo("description");
+        assertThat(task.getAssignee()).isNull();
+        assertThat(task.getLabels()).extracting(Label::getId).containsExactly(label.getId());
+    }
+
+    @Test
+    public void testImportFailingAfterCommittedChunk() {
+        var row = om.createObjectNode()
+                .put("title", "Imported " + UUID.randomUUID())
+                .put("status", testTask.getTaskStatus().getSlug())
+                .toString();
+        var rows = "[" + (row + ",").repeat(5000);
+        // The client disconnects after the first chunk
+        var body = new SequenceInputStream(new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset");
+                    }
+                });
+        var count = taskService.countAll(new TaskFilterDTO());
+        var etag = taskService.getListETag();
+
+        assertThatThrownBy(() -> taskImportService.importJson(body)).isInstanceOf(IOException.class);
+
+        assertThat(taskService.countAll(new TaskFilterDTO())).isEqualTo(count + 5000);
+        assertThat(taskService.getListETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void testBatchCreate() throws Exception {
+        var slug = testTask.getTaskStatus().getSlug();
+        var names = List.of("Batch " + UUID.randomUUID(), "Batch " + UUID.randomUUID());
+        var data = names.stream()
+                .map(name -> Map.of("title", name, "status", slug))
+                .toList();
+
+        var request = post("/api/tasks/batch")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        var result = mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).and(
+                v -> v.isArray().hasSize(2),
+                v -> v.node("[0].title").isEqualTo(names.get(0)),
+                v -> v.node("[1].status").isEqualTo(slug)
+        );
+        assertThat(names).allSatisfy(name -> assertThat(taskRepository.findByName(name)).isPresent());
+    }
+
+    @Test
+    public void testBatchUpdate() throws Exception {
+        var tasks = saveTasks(3);
+        var ids = tasks.stream().map(Task::getId).toList();
+        var status = taskStatusRepository.save(Instancio.of(modelGenerator.getTaskStatusModel()).create());
+        var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+
+        var data = Map.of(
+                "ids", ids,
+                "status", status.getSlug(),
+                "taskLabelIds", List.of(label.getId())
+        );
+        var request = patch("/api/tasks/batch")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        var result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).isArray().hasSize(3);
+        for (var id : ids) {
+            var task = taskRepository.findById(id).orElseThrow();
+            assertThat(task.getTaskStatus().getSlug()).isEqualTo(status.getSlug());
+            assertThat(task.getAssignee().getId()).isEqualTo(userUtils.getTestUser().getId());
+            assertThat(task.getLabels()).extracting(Label::getId).containsExactly(label.getId());
+        }
+    }
+
+    @Test
+    public void testBatchUpdateNotFound() throws Exception {
+        var task = saveTasks(1).get(0);
+        var status = taskStatusRepository.save(Instancio.of(modelGenerator.getTaskStatusModel()).create());
+
+        var data = Map.of(
+                "ids", List.of(task.getId(), Long.MAX_VALUE),
+                "status", status.getSlug()
+        );
+        var request = patch("/api/tasks/batch")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        mockMvc.perform(request)
+                .andExpect(status().isNotFound());
+
+        var unchanged = taskRepository.findById(task.getId()).orElseThrow();
+        assertThat(unchanged.getTaskStatus().getSlug()).isEqualTo(testTask.getTaskStatus().getSlug());
+    }
+
+    @Test
+    public void testBatchDelete() throws Exception {
+        var ids = saveTasks(3).stream().map(task -> task.getId().toString()).toList();
+
+        var request = delete("/api/tasks/batch")
+                .with(token)
+                .param("ids", String.join(",", ids));
+        mockMvc.perform(request)
+                .andExpect(status().isNoContent());
+
+        assertThat(ids).allSatisfy(id -> assertThat(taskRepository.existsById(Long.valueOf(id))).isFalse());
+    }
+
+    @Test
+    public void testBatchDeleteEvictsCountAfterCommit() {
+        var ids = saveTasks(3).stream().map(Task::getId).collect(Collectors.toSet());
+        var before = taskService.countAll(new TaskFilterDTO());
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            taskService.deleteAll(ids);
+            var concurrent = CompletableFuture.supplyAsync(() -> taskService.countAll(new TaskFilterDTO())).join();
+            assertThat(concurrent).isEqualTo(before);
+        });
+
+        assertThat(taskService.countAll(new TaskFilterDTO())).isEqualTo(before - ids.size());
+    }
+
+    private List<Task> saveTasks(int count) {
+        var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var tasks = new ArrayList<Task>();
+        for (var i = 0; i < count; i++) {
+            var task = Instancio.of(modelGenerator.getTaskModel()).create();
+            task.setTaskStatus(testTask.getTaskStatus());
+            task.setAssignee(userUtils.getTestUser());
+            task.setLabels(Set.of(label));
+            tasks.add(task);
+        }
+        return taskRepository.saveAll(tasks);
+    }
+
     @Test
     public void testIndexWithoutAuth() throws Exception {
         taskRepository.save(testTask);
@@ -232,6 +707,345 @@ public class TaskControllerTest {
         assertThat(task.get().getCreatedAt()).isNotNull();
     }
 
+    @Test
+    public void testCreateResolvesReferencesInOneQuery() throws Exception {
+        var label = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var slug = testTask.getTaskStatus().getSlug();
+        var assigneeId = userUtils.getTestUser().getId();
+        var data = Map.of(
+                "title", "Referenced " + UUID.randomUUID(),
+                "status", slug,
+                "assignee_id", assigneeId,
+                "taskLabelIds", List.of(label.getId())
+        );
+        taskStatusRepository.findBySlug(slug);
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var request = post("/api/tasks")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        var result = mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).and(
+                v -> v.node("status").isEqualTo(slug),
+                v -> v.node("assignee_id").isEqualTo(assigneeId),
+                v -> v.node("taskLabelIds").isArray().containsExactly(label.getId())
+        );
+        // reference check, id allocation, task row, tasks_labels row
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(statistics.getEntityStatistics(TaskStatus.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Label.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    public void testStatusLookupsReadFromCache() throws Exception {
+        taskRepository.save(testTask);
+        var from = testTask.getTaskStatus();
+        var to = taskStatusRepository.save(Instancio.of(modelGenerator.getTaskStatusModel()).create());
+        taskStatusRepository.findBySlug(from.getSlug());
+        taskStatusRepository.findBySlug(to.getSlug());
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(patch("/api/tasks/{id}/status", testTask.getId())
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(Map.of("from", from.getSlug(), "to", to.getSlug()))))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/task_statuses/{id}", to.getId()).with(token))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getEntityStatistics(TaskStatus.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    public void testCreateUnknownReferences() throws Exception {
+        var data = Map.of(
+                "title", "Referenced " + UUID.randomUUID(),
+                "status", testTask.getTaskStatus().getSlug(),
+                "taskLabelIds", List.of(Long.MAX_VALUE)
+        );
+
+        var request = post("/api/tasks")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        mockMvc.perform(request)
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testShowNotModified() throws Exception {
+        taskRepository.save(testTask);
+        var etag = mockMvc.perform(get("/api/tasks/{id}", testTask.getId()).with(token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/tasks/{id}", testTask.getId()).with(token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // only the version lookup
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        var taskStatus = testTask.getTaskStatus();
+        var request = put("/api/task_statuses/{id}", taskStatus.getId())
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("slug", taskStatus.getSlug() + "-renamed")));
+        mockMvc.perform(request)
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/{id}", testTask.getId()).with(token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void testIndexNotModified() throws Exception {
+        var etag = mockMvc.perform(get("/api/tasks").with(token))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/");
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/tasks").with(token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        taskRepository.save(testTask);
+
+        mockMvc.perform(get("/api/tasks").with(token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void testIndexETagFollowsDatabaseVersion() throws Exception {
+        var etag = mockMvc.perform(get("/api/tasks").with(token))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // A write made by another instance
+        jdbcTemplate.update("UPDATE collection_versions SET version = version + 1 WHERE name = 'tasks'");
+
+        mockMvc.perform(get("/api/tasks").with(token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void testListETagMovesWithCommit() {
+        var before = taskService.getListETag();
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            taskRepository.saveAndFlush(testTask);
+            var concurrent = CompletableFuture.supplyAsync(taskService::getListETag).join();
+            assertThat(concurrent).isEqualTo(before);
+        });
+
+        assertThat(taskService.getListETag()).isNotEqualTo(before);
+    }
+
+    @Test
+    public void testUpdateIfMatch() throws Exception {
+        taskRepository.save(testTask);
+        var etag = mockMvc.perform(get("/api/tasks/{id}", testTask.getId()).with(token))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        var request = put("/api/tasks/{id}", testTask.getId())
+                .with(token)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("title", "First " + UUID.randomUUID())));
+        mockMvc.perform(request)
+                .andExpect(status().isOk());
+
+        var staleTitle = "Stale " + UUID.randomUUID();
+        var staleRequest = put("/api/tasks/{id}", testTask.getId())
+                .with(token)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("title", staleTitle)));
+        mockMvc.perform(staleRequest)
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(taskRepository.findById(testTask.getId()).get().getName()).isNotEqualTo(staleTitle);
+    }
+
+    @Test
+    public void testTransitionStatus() throws Exception {
+        taskRepository.save(testTask);
+        var from = testTask.getTaskStatus();
+        var to = taskStatusRepository.save(Instancio.of(modelGenerator.getTaskStatusModel()).create());
+        var data = Map.of("from", from.getSlug(), "to", to.getSlug());
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(patch("/api/tasks/{id}/status", testTask.getId())
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(data)))
+                .andExpect(status().isNoContent());
+        assertThat(statistics.getEntityStatistics(Task.class.getName()).getLoadCount()).isZero();
+
+        var task = taskRepository.findById(testTask.getId()).get();
+        assertThat(task.getTaskStatus()).isEqualTo(to);
+        assertThat(task.getVersion()).isGreaterThan(testTask.getVersion());
+
+        mockMvc.perform(patch("/api/tasks/{id}/status", testTask.getId())
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(data)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(patch("/api/tasks/{id}/status", Long.MAX_VALUE)
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(data)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testConcurrentWritersBumpVersionsWithoutWaiting() {
+        var before = jdbcTemplate.queryForObject(TASK_VERSION_QUERY, Long.class);
+        Runnable saveTask = () -> {
+            var task = Instancio.of(modelGenerator.getTaskModel()).create();
+            task.setTaskStatus(testTask.getTaskStatus());
+            task.setAssignee(userUtils.getTestUser());
+            taskRepository.save(task);
+        };
+
+        // Label and user writers that are committing hold no row a task writer needs
+        transactionTemplate.executeWithoutResult(transaction -> {
+            jdbcTemplate.update("UPDATE collection_versions SET version = version + 1 WHERE name <> 'tasks'");
+            assertThat(CompletableFuture.runAsync(saveTask)).succeedsWithin(Duration.ofSeconds(5));
+        });
+
+        var writers = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.runAsync(saveTask))
+                .toArray(CompletableFuture[]::new);
+        assertThat(CompletableFuture.allOf(writers)).succeedsWithin(Duration.ofSeconds(10));
+
+        assertThat(jdbcTemplate.queryForObject(TASK_VERSION_QUERY, Long.class)).isEqualTo(before + 9);
+    }
+
+    @Test
+    public void testPatch() throws Exception {
+        taskRepository.save(testTask);
+        var title = "Patched " + UUID.randomUUID();
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(patch("/api/tasks/{id}", testTask.getId())
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(Map.of("title", title))))
+                .andExpect(status().isNoContent());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        var task = taskRepository.findById(testTask.getId()).get();
+        assertThat(task.getName()).isEqualTo(title);
+        assertThat(task.getDescription()).isEqualTo(testTask.getDescription());
+        assertThat(task.getTaskStatus()).isEqualTo(testTask.getTaskStatus());
+    }
+
+    @Test
+    public void testPatchLabels() throws Exception {
+        var kept = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var removed = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        var added = labelRepository.save(Instancio.of(modelGenerator.getLabelModel()).create());
+        testTask.setLabels(new HashSet<>(Set.of(kept, removed)));
+        taskRepository.save(testTask);
+
+        mockMvc.perform(patch("/api/tasks/{id}", testTask.getId())
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(Map.of("taskLabelIds", List.of(kept.getId(), added.getId())))))
+                .andExpect(status().isNoContent());
+
+        var task = taskRepository.findById(testTask.getId()).get();
+        assertThat(task.getLabels()).extracting(Label::getId).containsExactlyInAnyOrder(kept.getId(), added.getId());
+        assertThat(task.getVersion()).isGreaterThan(testTask.getVersion());
+
+        mockMvc.perform(patch("/api/tasks/{id}", Long.MAX_VALUE)
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(Map.of("taskLabelIds", List.of(kept.getId())))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testIndexBinaryFormats() throws Exception {
+        taskRepository.save(testTask);
+        var json = mockMvc.perform(get("/api/tasks").with(token).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+        var cbor = mockMvc.perform(get("/api/tasks").with(token).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse();
+
+        assertThat(new CBORMapper().readTree(cbor.getContentAsByteArray()))
+                .isEqualTo(om.readTree(json.getContentAsString()));
+        assertThat(cbor.getContentAsByteArray().length).isLessThan(json.getContentAsByteArray().length);
+        assertThat(cbor.getHeader(HttpHeaders.ETAG)).isNotEqualTo(json.getHeader(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/api/tasks")
+                        .with(token)
+                        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, cbor.getHeader(HttpHeaders.ETAG)));
+
+        var smile = mockMvc.perform(get("/api/tasks/{id}", testTask.getId())
+                        .with(token)
+                        .accept(ETagUtils.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ETagUtils.APPLICATION_SMILE))
+                .andReturn()
+                .getResponse();
+        var task = new SmileMapper().readTree(smile.getContentAsByteArray());
+        assertThat(task.get("id").asLong()).isEqualTo(testTask.getId());
+        assertThat(task.get("title").asText()).isEqualTo(testTask.getName());
+
+        var request = put("/api/tasks/{id}", testTask.getId())
+                .with(token)
+                .header(HttpHeaders.IF_MATCH, smile.getHeader(HttpHeaders.ETAG))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("title", "Smile " + UUID.randomUUID())));
+        mockMvc.perform(request)
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void testCreateNegative() throws Exception {
         var taskCreateRequest = Map.of(
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.service.TaskStatusService;
 import hexlet.code.util.ModelGenerator;
 import hexlet.code.util.UserUtils;
 import net.datafaker.Faker;
@@ -16,8 +17,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -56,6 +59,12 @@ public class TaskStatusControllerTest {
     @Autowired
     private Faker faker;
 
+    @Autowired
+    private TaskStatusService taskStatusService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @BeforeEach
     public void setUp() {
         testTaskStatus = Instancio.of(modelGenerator.getTaskStatusModel()).create();
@@ -96,8 +105,45 @@ public class TaskStatusControllerTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
+        var expectedSize = Math.max(0, Math.min(end, taskStatusRepository.count()) - start);
         var body = result.getResponse().getContentAsString();
-        assertThatJson(body).isArray().isEmpty();
+        assertThatJson(body).isArray().hasSize((int) expectedSize);
+    }
+
+    @Test
+    public void testIndexCountAfterWrite() throws Exception {
+        var before = getTotalCount();
+
+        var data = Instancio.of(modelGenerator.getTaskStatusModel()).create();
+        var request = post("/api/task_statuses")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("name", data.getName(), "slug", data.getSlug())));
+        mockMvc.perform(request)
+                .andExpect(status().isCreated());
+
+        assertThat(getTotalCount()).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void testCountCachedBeforeCommitIsEvicted() throws Exception {
+        var before = taskStatusService.countAll();
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            taskStatusRepository.saveAndFlush(testTaskStatus);
+            var concurrent = CompletableFuture.supplyAsync(taskStatusService::countAll).join();
+            assertThat(concurrent).isEqualTo(before);
+        });
+
+        assertThat(taskStatusService.countAll()).isEqualTo(before + 1);
+        assertThat(getTotalCount()).isEqualTo(before + 1);
+    }
+
+    private long getTotalCount() throws Exception {
+        var result = mockMvc.perform(get("/api/task_statuses").with(token))
+                .andExpect(status().isOk())
+                .andReturn();
+        return Long.parseLong(result.getResponse().getHeader("X-Total-Count"));
     }
 
     @Test
@@ -1,10 +1,15 @@
 package hexlet.code.controller.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.component.LoginGuard;
+import hexlet.code.component.LoginProperties;
+import hexlet.code.exception.ResourceConflictException;
 import hexlet.code.model.User;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.service.UserService;
+import hexlet.code.util.JWTUtils;
 import hexlet.code.util.ModelGenerator;
 import hexlet.code.util.UserUtils;
 import net.datafaker.Faker;
@@ -14,19 +19,31 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -52,12 +69,27 @@ class UserControllerTest {
     @Autowired
     private UserUtils userUtils;
 
+    @Autowired
+    private JWTUtils jwtUtils;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Autowired
     private TaskRepository taskRepository;
 
     @Autowired
     private TaskStatusRepository taskStatusRepository;
 
+    @Autowired
+    private LoginProperties loginProperties;
+
+    @Autowired
+    private LoginGuard loginGuard;
+
+    @Autowired
+    private UserService userService;
+
     private SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor token;
 
     @BeforeEach
@@ -100,8 +132,51 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
+        var expectedSize = Math.max(0, Math.min(end, userRepository.count()) - start);
         var body = result.getResponse().getContentAsString();
-        assertThatJson(body).isArray().isEmpty();
+        assertThatJson(body).isArray().hasSize((int) expectedSize);
+    }
+
+    @Test
+    public void testIndexRejectsHiddenSortProperty() throws Exception {
+        userRepository.save(testUser);
+
+        for (var cursor : new String[] {"", null}) {
+            var request = get("/api/users")
+                    .with(token)
+                    .param("_end", "1")
+                    .param("_sort", "password");
+            if (cursor != null) {
+                request.param("_cursor", cursor);
+            }
+            mockMvc.perform(request)
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    public void testIndexRejectsForgedCursor() throws Exception {
+        userRepository.save(testUser);
+        var result = mockMvc.perform(get("/api/users")
+                        .with(token)
+                        .param("_cursor", "")
+                        .param("_end", "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var cursor = result.getResponse().getHeader("X-Next-Cursor");
+        assertThat(cursor).isNotNull();
+        var position = cursor.substring(0, cursor.indexOf('.'));
+        var raw = new String(Base64.getUrlDecoder().decode(position), StandardCharsets.UTF_8);
+        var forged = Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.replaceFirst("\\n\\d+\\n", "\n0\n").getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/api/users")
+                        .with(token)
+                        .param("_cursor", forged + cursor.substring(cursor.indexOf('.')))
+                        .param("_end", "1"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -200,6 +275,168 @@ class UserControllerTest {
         assertThat(user.get().getPassword()).isNotEqualTo(testUser.getPassword());
     }
 
+    @Test
+    public void testBasicAuthAfterPasswordChange() throws Exception {
+        var oldPassword = testUser.getPassword();
+        testUser.setPassword(passwordEncoder.encode(oldPassword));
+        userRepository.save(testUser);
+
+        var show = "/api/users/" + testUser.getId();
+        mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), oldPassword)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), oldPassword)))
+                .andExpect(status().isOk());
+
+        var newPassword = faker.internet().password();
+        var request = put("/api/users/{id}", testUser.getId())
+                .with(httpBasic(testUser.getEmail(), oldPassword))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("password", newPassword)));
+        mockMvc.perform(request)
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), oldPassword)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), newPassword)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testBasicAuthUpgradesLegacyHash() throws Exception {
+        var password = testUser.getPassword();
+        testUser.setPassword(new BCryptPasswordEncoder(4).encode(password));
+        userRepository.save(testUser);
+        var listETag = userService.getListETag();
+
+        mockMvc.perform(get("/api/users/{id}", testUser.getId()).with(httpBasic(testUser.getEmail(), password)))
+                .andExpect(status().isOk());
+
+        var upgraded = userRepository.findById(testUser.getId()).get().getPassword();
+        assertThat(upgraded).startsWith("{bcrypt}").isNotEqualTo(testUser.getPassword());
+        assertThat(passwordEncoder.upgradeEncoding(upgraded)).isFalse();
+        // No list shows the hash
+        assertThat(userService.getListETag()).isEqualTo(listETag);
+
+        mockMvc.perform(get("/api/users/{id}", testUser.getId()).with(httpBasic(testUser.getEmail(), password)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testBasicAuthThrottledAfterFailures() throws Exception {
+        var password = testUser.getPassword();
+        testUser.setPassword(passwordEncoder.encode(password));
+        userRepository.save(testUser);
+
+        var show = "/api/users/" + testUser.getId();
+        for (var i = 0; i < loginProperties.getMaxFailuresPerAccount(); i++) {
+            mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), "wrong" + password)))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), password)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testBasicAuthCacheHitsSkipLoginPool() throws Exception {
+        var password = testUser.getPassword();
+        testUser.setPassword(passwordEncoder.encode(password));
+        userRepository.save(testUser);
+        var show = "/api/users/" + testUser.getId();
+        mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), password)))
+                .andExpect(status().isOk());
+
+        // Occupy every login thread and queue slot
+        var release = new CountDownLatch(1);
+        var blockers = new ArrayList<CompletableFuture<Boolean>>();
+        for (var i = 0; i < loginProperties.getThreads() + loginProperties.getQueueCapacity(); i++) {
+            blockers.add(loginGuard.submit("blocker", "blocker", () -> awaitUninterruptibly(release)));
+        }
+        try {
+            mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), password)))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get(show).with(httpBasic(testUser.getEmail(), "wrong" + password)))
+                    .andExpect(status().isTooManyRequests());
+        } finally {
+            release.countDown();
+        }
+        CompletableFuture.allOf(blockers.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static boolean awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Test
+    public void testUserDetailsManager() throws Exception {
+        var email = testUser.getEmail();
+        var password = faker.internet().password();
+        var encoded = passwordEncoder.encode(password);
+        userService.createUser(org.springframework.security.core.userdetails.User.withUsername(email)
+                .password(encoded)
+                .build());
+
+        var created = userRepository.findByEmail(email).get();
+        assertThat(created.getPassword()).isEqualTo(encoded);
+        assertThatThrownBy(() -> userService.createUser(created))
+                .isInstanceOf(ResourceConflictException.class);
+
+        var newPassword = passwordEncoder.encode(faker.internet().password());
+        testUser.setPassword(newPassword);
+        userService.updateUser(testUser);
+
+        var updated = userRepository.findByEmail(email).get();
+        assertThat(updated.getFirstName()).isEqualTo(testUser.getFirstName());
+        assertThat(updated.getLastName()).isEqualTo(testUser.getLastName());
+        assertThat(updated.getPassword()).isEqualTo(newPassword);
+
+        // Stored as given, even when it looks like a raw password or an unknown encoding
+        var other = Instancio.of(modelGenerator.getUserModel()).create().getEmail();
+        for (var value : new String[] {"{noop}" + password, "$2a$10$" + "x".repeat(53)}) {
+            userService.updateUser(org.springframework.security.core.userdetails.User.withUsername(email)
+                    .password(value)
+                    .build());
+            assertThat(userRepository.findByEmail(email).get().getPassword()).isEqualTo(value);
+        }
+        userService.createUser(org.springframework.security.core.userdetails.User.withUsername(other)
+                .password("{noop}" + password)
+                .build());
+        assertThat(userRepository.findByEmail(other).get().getPassword()).isEqualTo("{noop}" + password);
+
+        userService.updateUser(org.springframework.security.core.userdetails.User.withUsername(email)
+                .password(encoded)
+                .build());
+        mockMvc.perform(get("/api/users/{id}", created.getId()).with(httpBasic(email, password)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testUpdateWithIssuedToken() throws Exception {
+        userRepository.save(testUser);
+        var bearer = "Bearer " + jwtUtils.generateToken(testUser);
+        var newFirstName = faker.name().firstName();
+
+        var request = put("/api/users/{id}", testUser.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("firstName", newFirstName)));
+        mockMvc.perform(request)
+                .andExpect(status().isOk());
+
+        var otherRequest = put("/api/users/{id}", userUtils.getTestUser().getId())
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("firstName", newFirstName)));
+        mockMvc.perform(otherRequest)
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     public void testUpdateByOtherUser() throws Exception {
         userRepository.save(testUser);
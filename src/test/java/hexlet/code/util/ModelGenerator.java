@@ -34,6 +34,7 @@ public class ModelGenerator {
     private void init() {
         userModel = Instancio.of(User.class)
                 .ignore(Select.field(User::getId))
+                .ignore(Select.field(User::getVersion))
                 .ignore(Select.field(User::getCreatedAt))
                 .ignore(Select.field(User::getUpdatedAt))
                 .supply(Select.field(User::getFirstName), () -> faker.name().firstName())
@@ -43,6 +44,7 @@ public class ModelGenerator {
                 .toModel();
         taskStatusModel = Instancio.of(TaskStatus.class)
                 .ignore(Select.field(TaskStatus::getId))
+                .ignore(Select.field(TaskStatus::getVersion))
                 .ignore(Select.field(TaskStatus::getCreatedAt))
                 .supply(Select.field(TaskStatus::getName), () -> faker.text().text())
                 .supply(Select.field(TaskStatus::getSlug), () -> faker.internet().slug())
@@ -50,6 +52,7 @@ public class ModelGenerator {
 
         taskModel = Instancio.of(Task.class)
                 .ignore(Select.field(Task::getId))
+                .ignore(Select.field(Task::getVersion))
                 .ignore(Select.field(Task::getCreatedAt))
                 .ignore(Select.field(Task::getTaskStatus))
                 .ignore(Select.field(Task::getAssignee))
@@ -60,6 +63,8 @@ public class ModelGenerator {
                 .toModel();
 
         labelModel = Instancio.of(Label.class)
+                .ignore(Select.field(Label::getId))
+                .ignore(Select.field(Label::getVersion))
                 .ignore(Select.field(Label::getCreatedAt))
                 .supply(Select.field(Label::getName), () -> faker.text().text(3, 1000))
                 .toModel();
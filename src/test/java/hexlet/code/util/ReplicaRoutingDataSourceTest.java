@@ -0,0 +1,140 @@
+package hexlet.code.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hexlet.code.component.LoginGuard;
+import hexlet.code.component.ReadYourWritesFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Both routes point at the same in-memory database; only the chosen lookup key is checked.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+    "replica.username=sa",
+    "replica.password=",
+    "replica.read-your-writes-window=1m",
+    "replica.hikari.maximum-pool-size=3",
+    "spring.datasource.hikari.maximum-pool-size=4"
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    @Autowired
+    private LoginGuard loginGuard;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    private ReplicaRoutingDataSource routing;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setUp() {
+        routing = (ReplicaRoutingDataSource) ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        ReplicaRoutingDataSource.clear();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseReplica() {
+        assertThat(readOnly.execute(status -> routing.determineCurrentLookupKey()))
+                .isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+        assertThat(readWrite.execute(status -> routing.determineCurrentLookupKey()))
+                .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        assertThat(routing.determineCurrentLookupKey())
+                .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    public void testRequirePrimaryOverridesReadOnly() {
+        ReplicaRoutingDataSource.requirePrimary(true);
+        assertThat(readOnly.execute(status -> routing.determineCurrentLookupKey()))
+                .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    public void testPoolSettingsApplyToBothRoutes() {
+        var targets = routing.getResolvedDataSources();
+        assertThat(((HikariDataSource) targets.get(ReplicaRoutingDataSource.Route.PRIMARY)).getMaximumPoolSize())
+                .isEqualTo(4);
+        assertThat(((HikariDataSource) targets.get(ReplicaRoutingDataSource.Route.REPLICA)).getMaximumPoolSize())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void testRequirePrimaryFollowsWorkToOtherThreads() throws Exception {
+        ReplicaRoutingDataSource.requirePrimary(true);
+        Callable<Object> route = () -> readOnly.execute(status -> routing.determineCurrentLookupKey());
+
+        assertThat(loginGuard.submit("reader", "", () -> call(route)).get())
+                .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        assertThat(applicationTaskExecutor.submit(route).get())
+                .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    public void testReadYourWritesWindow() throws Exception {
+        assertThat(routeRead("GET", "reader")).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+        assertThat(routeRead("POST", "writer")).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+
+        assertThat(routeRead("GET", "writer")).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        assertThat(routeRead("GET", "reader")).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    private static Object call(Callable<Object> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object routeRead(String method, String username) throws Exception {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+        var route = new AtomicReference<>();
+        readYourWritesFilter.doFilter(new MockHttpServletRequest(method, "/api/tasks"), new MockHttpServletResponse(),
+                (request, response) -> route.set(readOnly.execute(status -> routing.determineCurrentLookupKey())));
+        return route.get();
+    }
+}